@@ -0,0 +1,72 @@
+package com.example.userservice.benchmark;
+
+import com.example.userservice.event.UserEvent;
+import com.example.userservice.event.UserEventCodec;
+import com.example.userservice.event.UserEventType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Encode/decode cost of one user event in the legacy "TYPE:id:email" string, JSON and the binary codec
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private UserEvent event;
+    private byte[] legacyBytes;
+    private byte[] jsonBytes;
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        event = new UserEvent(UserEventType.USER_REGISTERED, 4_815_162L, System.currentTimeMillis(), "alice.johnson@example.com");
+        legacyBytes = encodeLegacy().getBytes(StandardCharsets.UTF_8);
+        jsonBytes = objectMapper.writeValueAsBytes(event);
+        binaryBytes = UserEventCodec.encode(event);
+        System.out.printf("%npayload bytes: legacy=%d json=%d binary=%d%n",
+                legacyBytes.length, jsonBytes.length, binaryBytes.length);
+    }
+
+    @Benchmark
+    public byte[] legacyStringEncode() {
+        return encodeLegacy().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public UserEvent legacyStringDecode() {
+        String[] parts = new String(legacyBytes, StandardCharsets.UTF_8).split(":");
+        return new UserEvent(UserEventType.valueOf(parts[0]), Long.parseLong(parts[1]), 0L, parts[2]);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() throws Exception {
+        return objectMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public UserEvent jsonDecode() throws Exception {
+        return objectMapper.readValue(jsonBytes, UserEvent.class);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return UserEventCodec.encode(event);
+    }
+
+    @Benchmark
+    public UserEvent binaryDecode() {
+        return UserEventCodec.decode(binaryBytes);
+    }
+
+    private String encodeLegacy() {
+        return event.type().name() + ":" + event.userId() + ":" + event.email();
+    }
+}
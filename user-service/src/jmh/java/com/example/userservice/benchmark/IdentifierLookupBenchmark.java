@@ -0,0 +1,113 @@
+package com.example.userservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// MPIN-login identifier resolution against a populated users table (H2, plain JDBC):
+// the old mobile-then-email fallback versus classifying the identifier and issuing one query,
+// with and without the unique index on mobile_number.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdentifierLookupBenchmark {
+
+    private static final String BY_MOBILE = "select id, mpin from users where mobile_number = ?";
+    private static final String BY_EMAIL = "select id, mpin from users where email = ?";
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"true", "false"})
+    public boolean mobileIndexed;
+
+    private Connection connection;
+    private PreparedStatement byMobile;
+    private PreparedStatement byEmail;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:lookup-" + mobileIndexed + ";DB_CLOSE_DELAY=-1");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("create table users (id bigint primary key, email varchar(255) not null unique, "
+                    + "mobile_number varchar(10) not null" + (mobileIndexed ? " unique" : "") + ", mpin varchar(6) not null)");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into users (id, email, mobile_number, mpin) values (?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                insert.setLong(1, i);
+                insert.setString(2, email(i));
+                insert.setString(3, mobile(i));
+                insert.setString(4, "1234");
+                insert.addBatch();
+                if (i % 1000 == 999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        byMobile = connection.prepareStatement(BY_MOBILE);
+        byEmail = connection.prepareStatement(BY_EMAIL);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement drop = connection.createStatement()) {
+            drop.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    // Previous behaviour for an email login: a mobile lookup that misses, then the email lookup
+    @Benchmark
+    public long emailFallback() throws SQLException {
+        String email = email(nextRow());
+        long id = lookup(byMobile, email);
+        return id >= 0 ? id : lookup(byEmail, email);
+    }
+
+    @Benchmark
+    public long emailClassified() throws SQLException {
+        return resolve(email(nextRow()));
+    }
+
+    @Benchmark
+    public long mobileClassified() throws SQLException {
+        return resolve(mobile(nextRow()));
+    }
+
+    private long resolve(String identifier) throws SQLException {
+        return lookup(identifier.indexOf('@') >= 0 ? byEmail : byMobile, identifier);
+    }
+
+    private static long lookup(PreparedStatement statement, String value) throws SQLException {
+        statement.setString(1, value);
+        try (ResultSet rs = statement.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : -1;
+        }
+    }
+
+    private int nextRow() {
+        return ThreadLocalRandom.current().nextInt(rows);
+    }
+
+    private static String email(int i) {
+        return "user" + i + "@example.com";
+    }
+
+    private static String mobile(int i) {
+        return String.valueOf(6_000_000_000L + i);
+    }
+}
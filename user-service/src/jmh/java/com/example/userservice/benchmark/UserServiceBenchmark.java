@@ -0,0 +1,162 @@
+package com.example.userservice.benchmark;
+
+import com.example.userservice.UserServiceApplication;
+import com.example.userservice.dto.UserRegistrationRequest;
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.BulkRegistrationService;
+import com.example.userservice.service.UserService;
+import com.example.userservice.support.StubKafkaConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// UserService hot paths against the real Spring context on the embedded profile (H2, stubbed Kafka).
+// Lookups go through UserCache; the *Uncached variants hit the repository directly.
+// BCrypt dominates register and login; pass -jvmArgs -Duser.password.bcrypt-cost=N to vary it.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+
+    private static final String PASSWORD = "Bench@Pass123";
+    private static final String MPIN = "1234";
+
+    @Param({"10000"})
+    public int users;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserRepository userRepository;
+    private final AtomicLong registered = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(UserServiceApplication.class, StubKafkaConfig.class)
+                .profiles("embedded")
+                // SecurityConfig needs the servlet stack, so start it on a random port
+                .properties("server.port=0")
+                .logStartupInfo(false)
+                .run();
+        userService = context.getBean(UserService.class);
+        userRepository = context.getBean(UserRepository.class);
+
+        BulkRegistrationService bulk = context.getBean(BulkRegistrationService.class);
+        List<UserRegistrationRequest> batch = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            batch.add(request(i));
+            if (batch.size() == 5000 || i == users - 1) {
+                bulk.registerAll(batch);
+                batch.clear();
+            }
+        }
+        registered.set(users);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public User register() {
+        return userService.register(request((int) registered.getAndIncrement()));
+    }
+
+    @Benchmark
+    public User login() {
+        return userService.login(username(nextUser()), PASSWORD);
+    }
+
+    @Benchmark
+    public User loginWithMpinByMobile() {
+        return userService.loginWithMpin(mobile(nextUser()), MPIN);
+    }
+
+    @Benchmark
+    public User loginWithMpinByEmail() {
+        return userService.loginWithMpin(email(nextUser()), MPIN);
+    }
+
+    @Benchmark
+    public User getUserById() {
+        return userService.getUserById(nextUser() + 1L);
+    }
+
+    @Benchmark
+    public User getUserByEmail() {
+        return userService.getUserByEmail(email(nextUser()));
+    }
+
+    @Benchmark
+    public User getUserByMobile() {
+        return userService.getUserByMobile(mobile(nextUser()));
+    }
+
+    @Benchmark
+    public Object getUserByIdUncached() {
+        return userRepository.findById(nextUser() + 1L);
+    }
+
+    @Benchmark
+    public Object getUserByEmailUncached() {
+        return userRepository.findByEmail(email(nextUser()));
+    }
+
+    @Benchmark
+    public Object getUserByMobileUncached() {
+        return userRepository.findByMobile(mobile(nextUser()));
+    }
+
+    private int nextUser() {
+        return ThreadLocalRandom.current().nextInt(users);
+    }
+
+    private static UserRegistrationRequest request(int i) {
+        UserRegistrationRequest request = new UserRegistrationRequest();
+        request.setUsername(username(i));
+        request.setFirstName("Bench");
+        request.setLastName("User" + i);
+        request.setDob(LocalDate.of(1990, 1, 1));
+        request.setPan(pan(i));
+        request.setMobile(mobile(i));
+        request.setEmail(email(i));
+        request.setPassword(PASSWORD);
+        request.setMpin(MPIN);
+        request.setAddress("1 Bench Street");
+        request.setState("Karnataka");
+        request.setPincode("560001");
+        request.setCountry("India");
+        request.setGender("OTHER");
+        return request;
+    }
+
+    // Unique and valid (AAAAA9999A) for up to 6.76 million users
+    private static String pan(int i) {
+        int block = i / 10_000;
+        return "BNC" + (char) ('A' + block / 26 % 26) + (char) ('A' + block % 26)
+                + String.format("%04d", i % 10_000) + "Z";
+    }
+
+    private static String username(int i) {
+        return "bench" + i;
+    }
+
+    private static String email(int i) {
+        return "bench" + i + "@example.com";
+    }
+
+    private static String mobile(int i) {
+        return String.valueOf(7_000_000_000L + i);
+    }
+}
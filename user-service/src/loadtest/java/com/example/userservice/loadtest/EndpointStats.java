@@ -0,0 +1,67 @@
+package com.example.userservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency and outcome counts for one endpoint. Latency is measured from the request's scheduled
+// start, not from when it was actually sent, so a stalled server cannot hide its queueing delay.
+final class EndpointStats {
+
+    private final String name;
+    private final Recorder latencies = new Recorder(3);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private Histogram total;
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    void record(long latencyNanos, int status) {
+        latencies.recordValue(latencyNanos);
+        if (status >= 500) {
+            serverErrors.increment();
+        } else if (status >= 400) {
+            clientErrors.increment();
+        } else {
+            ok.increment();
+        }
+    }
+
+    // The request never produced a response (connection error, timeout)
+    void recordFailure(long latencyNanos) {
+        latencies.recordValue(latencyNanos);
+        failures.increment();
+    }
+
+    // Drops everything recorded so far; called once warm-up is over
+    void reset() {
+        latencies.reset();
+        ok.reset();
+        clientErrors.reset();
+        serverErrors.reset();
+        failures.reset();
+    }
+
+    String report(double seconds) {
+        total = latencies.getIntervalHistogram();
+        long count = total.getTotalCount();
+        return String.format("%-10s %9d %9.1f %8d %8d %8d %9.2f %9.2f %9.2f %9.2f",
+                name, count, count / seconds, clientErrors.sum(), serverErrors.sum(), failures.sum(),
+                millis(total.getValueAtPercentile(50)), millis(total.getValueAtPercentile(99)),
+                millis(total.getValueAtPercentile(99.9)), millis(total.getMaxValue()));
+    }
+
+    static String header() {
+        return String.format("%-10s %9s %9s %8s %8s %8s %9s %9s %9s %9s",
+                "endpoint", "requests", "req/s", "4xx", "5xx", "failed", "p50 ms", "p99 ms", "p999 ms", "max ms");
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.userservice.loadtest;
+
+import com.example.userservice.UserServiceApplication;
+import com.example.userservice.cache.UserCacheInvalidator;
+import com.example.userservice.dto.BulkRegistrationResult;
+import com.example.userservice.dto.UserRegistrationRequest;
+import com.example.userservice.event.OutboxRelay;
+import com.example.userservice.service.BulkRegistrationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Boots user-service against in-process stand-ins (H2, a single-node KRaft Kafka broker, no Eureka),
+// seeds users, then fires a weighted mix of HTTP requests at a fixed arrival rate (open model:
+// requests are sent on schedule whether or not earlier ones have completed) and prints throughput
+// and latency percentiles per endpoint.
+//
+// Options (all --key=value): rps, duration, warmup, users, mix (name:weight,...), max-in-flight,
+// bcrypt-cost, profiles (extra Spring profiles, e.g. virtual-threads).
+public final class LoadTestRunner {
+
+    private static final String PASSWORD = "Load@Pass123";
+    private static final String MPIN = "1234";
+
+    private final Map<String, String> options;
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final AtomicInteger nextRegistration = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final List<Long> seededIds = new ArrayList<>();
+    private String baseUrl;
+    private int users;
+
+    private LoadTestRunner(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        new LoadTestRunner(options).run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        int rps = Integer.parseInt(options.getOrDefault("rps", "200"));
+        Duration duration = Duration.parse("PT" + options.getOrDefault("duration", "60s"));
+        Duration warmup = Duration.parse("PT" + options.getOrDefault("warmup", "10s"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "2000"));
+        users = Integer.parseInt(options.getOrDefault("users", "2000"));
+        Map<String, Integer> mix = parseMix(options.getOrDefault("mix",
+                "register:5,login:15,mpin:15,byId:40,byEmail:15,search:10"));
+
+        EmbeddedKafkaKraftBroker kafka = new EmbeddedKafkaKraftBroker(1, 12, OutboxRelay.TOPIC, UserCacheInvalidator.TOPIC);
+        kafka.afterPropertiesSet();
+        String profiles = "embedded,loadtest" + (options.containsKey("profiles") ? "," + options.get("profiles") : "");
+        ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                new SpringApplicationBuilder(UserServiceApplication.class)
+                        .profiles(profiles.split(","))
+                        .properties("server.port=0",
+                                "spring.kafka.bootstrap-servers=" + kafka.getBrokersAsString(),
+                                "user.password.bcrypt-cost=" + options.getOrDefault("bcrypt-cost", "10"))
+                        .run();
+        try {
+            baseUrl = "http://localhost:" + context.getWebServer().getPort() + "/api/users";
+            seed(context.getBean(BulkRegistrationService.class));
+            nextRegistration.set(users);
+
+            Map<String, EndpointStats> stats = new LinkedHashMap<>();
+            mix.keySet().forEach(name -> stats.put(name, new EndpointStats(name)));
+            String[] schedule = weightedSchedule(mix);
+
+            System.out.printf("%nWarming up for %ds at %d req/s...%n", warmup.toSeconds(), rps);
+            drive(rps, warmup, schedule, stats, maxInFlight);
+            awaitInFlight();
+            stats.values().forEach(EndpointStats::reset);
+            dropped.set(0);
+
+            System.out.printf("Measuring for %ds at %d req/s...%n", duration.toSeconds(), rps);
+            long started = System.nanoTime();
+            drive(rps, duration, schedule, stats, maxInFlight);
+            awaitInFlight();
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            System.out.printf("%nprofiles=%s rps=%d duration=%ds users=%d dropped=%d%n",
+                    profiles, rps, duration.toSeconds(), users, dropped.get());
+            System.out.println(EndpointStats.header());
+            stats.values().forEach(s -> System.out.println(s.report(seconds)));
+        } finally {
+            context.close();
+            kafka.destroy();
+        }
+    }
+
+    // Sends one request every 1/rps seconds for the given duration, picking endpoints round-robin
+    // from a shuffled schedule that matches the mix weights
+    private void drive(int rps, Duration duration, String[] schedule, Map<String, EndpointStats> stats, int maxInFlight) {
+        long interval = 1_000_000_000L / rps;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (intended >= end) {
+                return;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.get() >= maxInFlight) {
+                dropped.incrementAndGet();
+                continue;
+            }
+            String name = schedule[(int) (i % schedule.length)];
+            send(requestFor(name), stats.get(name), intended);
+        }
+    }
+
+    private void send(HttpRequest request, EndpointStats stats, long intended) {
+        inFlight.incrementAndGet();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, ex) -> {
+                    long latency = System.nanoTime() - intended;
+                    if (ex != null) {
+                        stats.recordFailure(latency);
+                    } else {
+                        stats.record(latency, response.statusCode());
+                    }
+                    inFlight.decrementAndGet();
+                });
+    }
+
+    private HttpRequest requestFor(String name) {
+        int user = ThreadLocalRandom.current().nextInt(users);
+        return switch (name) {
+            case "register" -> post("/register", request(nextRegistration.getAndIncrement()));
+            case "login" -> post("/login", Map.of("username", username(user), "password", PASSWORD));
+            case "mpin" -> post("/login/mpin", Map.of("mobile/email",
+                    user % 2 == 0 ? mobile(user) : email(user), "mpin", MPIN));
+            case "byId" -> get("/" + seededIds.get(user));
+            case "byEmail" -> get("/email/" + email(user));
+            case "search" -> get("/search?name=load&state=Karnataka&limit=20");
+            default -> throw new IllegalArgumentException("Unknown endpoint in mix: " + name);
+        };
+    }
+
+    private void seed(BulkRegistrationService bulk) {
+        System.out.printf("Seeding %d users...%n", users);
+        List<UserRegistrationRequest> batch = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            batch.add(request(i));
+            if (batch.size() == 5000 || i == users - 1) {
+                for (BulkRegistrationResult result : bulk.registerAll(batch)) {
+                    if (result.getStatus() != BulkRegistrationResult.Status.CREATED) {
+                        throw new IllegalStateException("Seeding failed: " + result.getError());
+                    }
+                    seededIds.add(result.getUserId());
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private HttpRequest post(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        return weights;
+    }
+
+    private static String[] weightedSchedule(Map<String, Integer> mix) {
+        List<String> slots = new ArrayList<>();
+        mix.forEach((name, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(name);
+            }
+        });
+        Collections.shuffle(slots, new Random(42));
+        return slots.toArray(String[]::new);
+    }
+
+    private static UserRegistrationRequest request(int i) {
+        UserRegistrationRequest request = new UserRegistrationRequest();
+        request.setUsername("load" + i);
+        request.setFirstName("Load");
+        request.setLastName("User" + i);
+        request.setDob(LocalDate.of(1990, 1, 1));
+        request.setPan(pan(i));
+        request.setMobile(mobile(i));
+        request.setEmail(email(i));
+        request.setPassword(PASSWORD);
+        request.setMpin(MPIN);
+        request.setAddress("1 Load Street");
+        request.setState("Karnataka");
+        request.setPincode("560001");
+        request.setCountry("India");
+        request.setGender("OTHER");
+        return request;
+    }
+
+    // Unique and valid (AAAAA9999A) for up to 6.76 million users
+    private static String pan(int i) {
+        int block = i / 10_000;
+        return "LDT" + (char) ('A' + block / 26 % 26) + (char) ('A' + block % 26)
+                + String.format("%04d", i % 10_000) + "Z";
+    }
+
+    private static String username(int i) {
+        return "load" + i;
+    }
+
+    private static String email(int i) {
+        return "load" + i + "@example.com";
+    }
+
+    private static String mobile(int i) {
+        return String.valueOf(8_000_000_000L + i);
+    }
+}
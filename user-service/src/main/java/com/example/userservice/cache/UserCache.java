@@ -0,0 +1,133 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+// In-process read-through cache for users. Entries are stored once by id; email, mobile and
+// username are aliases that point at the id, so evicting the id invalidates every lookup path.
+// Each entry is a private copy shared by every reader, so callers must not modify what a lookup returns.
+@Component
+public class UserCache {
+
+    private final Cache<Long, User> byId;
+    private final Cache<String, Long> aliases;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public UserCache(@Value("${user.cache.maximum-size:100000}") long maximumSize,
+                     @Value("${user.cache.ttl:5m}") Duration ttl,
+                     MeterRegistry meterRegistry) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Three aliases per user; they expire with their entry and a dangling alias is just a miss
+        this.aliases = Caffeine.newBuilder()
+                .maximumSize(maximumSize * 3)
+                .expireAfterWrite(ttl)
+                .build();
+        this.hits = Counter.builder("user.cache.lookups").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("user.cache.lookups").tag("result", "miss").register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users");
+    }
+
+    public Optional<User> getById(Long id, Function<Long, Optional<User>> loader) {
+        User cached = byId.getIfPresent(id);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+        return loader.apply(id).map(this::put);
+    }
+
+    public Optional<User> getByEmail(String email, Function<String, Optional<User>> loader) {
+        return getByAlias(emailKey(email), email, User::getEmail, loader);
+    }
+
+    public Optional<User> getByMobile(String mobile, Function<String, Optional<User>> loader) {
+        return getByAlias(mobileKey(mobile), mobile, User::getMobile, loader);
+    }
+
+    public Optional<User> getByUsername(String username, Function<String, Optional<User>> loader) {
+        return getByAlias(usernameKey(username), username, User::getUsername, loader);
+    }
+
+    // Stores a copy: the caller's instance may still be managed by its session, and a change to it must not
+    // show up in the cache before it is committed
+    public User put(User user) {
+        byId.put(user.getId(), user.toBuilder().build());
+        aliases.put(emailKey(user.getEmail()), user.getId());
+        aliases.put(mobileKey(user.getMobile()), user.getId());
+        aliases.put(usernameKey(user.getUsername()), user.getId());
+        return user;
+    }
+
+    // True when the entry for this id already reflects the given version or a later one
+    public boolean holdsVersion(Long id, long version) {
+        User cached = byId.getIfPresent(id);
+        return cached != null && cached.getVersion() >= version;
+    }
+
+    // Drop the entry for this id together with the aliases it was reachable by
+    public void evict(Long id) {
+        User cached = byId.getIfPresent(id);
+        if (cached != null) {
+            evict(cached);
+        }
+        byId.invalidate(id);
+    }
+
+    // Drop the entry and the aliases of this user; used when the caller already holds the row
+    public void evict(User user) {
+        byId.invalidate(user.getId());
+        aliases.invalidate(emailKey(user.getEmail()));
+        aliases.invalidate(mobileKey(user.getMobile()));
+        aliases.invalidate(usernameKey(user.getUsername()));
+    }
+
+    public void clear() {
+        byId.invalidateAll();
+        aliases.invalidateAll();
+    }
+
+    private Optional<User> getByAlias(String key, String value, Function<User, String> attribute,
+                                      Function<String, Optional<User>> loader) {
+        Long id = aliases.getIfPresent(key);
+        if (id != null) {
+            User cached = byId.getIfPresent(id);
+            // The alias may outlive a change of that identifier, so confirm it still belongs to the entry
+            if (cached != null && Objects.equals(attribute.apply(cached), value)) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+        }
+        misses.increment();
+        return loader.apply(value).map(this::put);
+    }
+
+    private static String emailKey(String email) {
+        return "email:" + email;
+    }
+
+    private static String mobileKey(String mobile) {
+        return "mobile:" + mobile;
+    }
+
+    private static String usernameKey(String username) {
+        return "username:" + username;
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.entity.User;
+import com.example.userservice.security.MpinAttemptTracker;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Keeps the per-replica UserCache and Hibernate second-level cache coherent: evicts locally and broadcasts
+// "userId:version:node" on user-cache-invalidation so every other replica evicts the same entry, unless its copy
+// is already at that version. "userId:node" (a deletion, or a bulk write whose version is unknown) always evicts.
+@Slf4j
+@Component
+public class UserCacheInvalidator {
+
+    public static final String TOPIC = "user-cache-invalidation";
+
+    private final UserCache userCache;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    // Hibernate's own cache; null where UserCache is used without JPA
+    private final Cache secondLevelCache;
+    // Runs the second eviction once replicas have caught up; null when reads never hit a replica
+    private final ScheduledThreadPoolExecutor afterReplicaLag;
+    private final Duration replicaLag;
+    // This replica's MPIN failure counts; null where UserCache is used without the MPIN login path
+    private final MpinAttemptTracker mpinAttemptTracker;
+
+    // Each replica consumes in its own group so every node sees every invalidation
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public UserCacheInvalidator(UserCache userCache, KafkaTemplate<String, String> kafkaTemplate) {
+        this(userCache, kafkaTemplate, Duration.ZERO, null, null);
+    }
+
+    // Reads only reach a replica when routing is on (see DataSourceConfig); otherwise there is no lag to wait out
+    @Autowired
+    public UserCacheInvalidator(UserCache userCache, KafkaTemplate<String, String> kafkaTemplate,
+                                @Value("${user.datasource.replica.jdbc-url:}") String replicaUrl,
+                                @Value("${user.datasource.replica.max-lag:0s}") Duration replicaLag,
+                                EntityManagerFactory entityManagerFactory,
+                                MpinAttemptTracker mpinAttemptTracker) {
+        this(userCache, kafkaTemplate, StringUtils.hasText(replicaUrl) ? replicaLag : Duration.ZERO,
+                entityManagerFactory, mpinAttemptTracker);
+    }
+
+    public UserCacheInvalidator(UserCache userCache, KafkaTemplate<String, String> kafkaTemplate,
+                                Duration replicaLag, EntityManagerFactory entityManagerFactory,
+                                MpinAttemptTracker mpinAttemptTracker) {
+        this.userCache = userCache;
+        this.kafkaTemplate = kafkaTemplate;
+        this.secondLevelCache = entityManagerFactory == null
+                ? null : entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.replicaLag = replicaLag;
+        this.mpinAttemptTracker = mpinAttemptTracker;
+        this.afterReplicaLag = replicaLag.isPositive() ? delayedEvictions() : null;
+    }
+
+    public String getGroupId() {
+        return "user-service-cache-" + nodeId;
+    }
+
+    // For a write to a row that still exists; the version is read at commit, once the last flush has bumped it
+    public void invalidate(User user) {
+        userCache.evict(user);
+        afterCommit(() -> {
+            userCache.evict(user);
+            evictAfterReplicaLag(user.getId());
+            publish(user.getId(), user.getId() + ":" + user.getVersion() + ":" + nodeId);
+        });
+    }
+
+    // For a deletion, or a write whose resulting version is not known here
+    public void invalidate(Long userId) {
+        userCache.evict(userId);
+        afterCommit(() -> {
+            userCache.evict(userId);
+            evictAfterReplicaLag(userId);
+            publish(userId, userId + ":" + nodeId);
+        });
+    }
+
+    // Drop this replica's cached copies without announcing a change, e.g. after a write lost a version race
+    public void evictLocal(Long userId) {
+        userCache.evict(userId);
+        evictSecondLevel(userId);
+    }
+
+    @KafkaListener(topics = TOPIC, groupId = "#{__listener.groupId}",
+            properties = "auto.offset.reset=latest")
+    public void onInvalidation(String message) {
+        String[] parts = message.split(":");
+        if (parts.length != 2 && parts.length != 3) {
+            log.warn("Ignoring malformed cache invalidation '{}'", message);
+            return;
+        }
+        if (nodeId.equals(parts[parts.length - 1])) {
+            return; // already evicted locally
+        }
+        Long userId = Long.valueOf(parts[0]);
+        // Failures counted here may predate a reset or unlock written elsewhere; the row decides from now on.
+        // Counts carry no version, so this happens even when the cached copy below is kept
+        if (mpinAttemptTracker != null) {
+            mpinAttemptTracker.reset(userId);
+        }
+        // A copy at the announced version or later was read after the write, so a late or reordered message
+        // leaves it alone. Without a cached copy there is nothing to compare, and the entries are dropped
+        if (parts.length == 3 && userCache.holdsVersion(userId, Long.parseLong(parts[1]))) {
+            return;
+        }
+        // The writing replica's Hibernate already updated its own second-level entry; ours is stale
+        userCache.evict(userId);
+        evictSecondLevel(userId);
+        evictNaturalIds();
+        evictAfterReplicaLag(userId);
+    }
+
+    // Pending evictions are dropped: the caches they would touch are being closed too
+    @PreDestroy
+    public void shutdown() {
+        if (afterReplicaLag != null) {
+            afterReplicaLag.shutdownNow();
+        }
+    }
+
+    // A read between commit and replication can cache the old row from a lagging replica; drop it again
+    private void evictAfterReplicaLag(Long userId) {
+        if (afterReplicaLag != null) {
+            afterReplicaLag.schedule(() -> {
+                userCache.evict(userId);
+                evictSecondLevel(userId);
+            }, replicaLag.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // One daemon thread for every delayed eviction; once shut down, new ones are discarded, not rejected
+    private static ScheduledThreadPoolExecutor delayedEvictions() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "cache-replica-lag");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        return executor;
+    }
+
+    private void evictSecondLevel(Long userId) {
+        if (secondLevelCache != null) {
+            secondLevelCache.evict(User.class, userId);
+        }
+    }
+
+    // A username deleted and registered again elsewhere would still resolve to the old id here. Hibernate can
+    // only drop natural ids per entity type, and re-resolving one is a single indexed lookup
+    private void evictNaturalIds() {
+        if (secondLevelCache != null) {
+            secondLevelCache.evictNaturalIdData(User.class);
+        }
+    }
+
+    private void publish(Long userId, String message) {
+        kafkaTemplate.send(TOPIC, String.valueOf(userId), message)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.warn("Failed to publish cache invalidation for user {}", userId, ex);
+                    }
+                });
+    }
+
+    // Other replicas must not re-read the row before the change is visible, so defer to commit
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.userservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Read/write split, active only when user.datasource.replica.jdbc-url is set; otherwise Boot's single
+// spring.datasource pool is used as before. Read-only transactions run on the replica pool, everything
+// else on the primary. The lazy proxy only fetches a physical connection at the first statement, after
+// the transaction has marked it read-only, which is what lets it pick the pool.
+@Configuration
+@ConditionalOnProperty(prefix = "user.datasource.replica", name = "jdbc-url")
+public class DataSourceConfig {
+
+    // Pool settings come from spring.datasource.hikari, as they would for Boot's own pool
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // Connection and pool settings (jdbc-url, username, maximum-pool-size, ...) from user.datasource.replica
+    @Bean
+    @ConfigurationProperties("user.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        return new HikariDataSource();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource) {
+        return routing(primaryDataSource, replicaDataSource);
+    }
+
+    static LazyConnectionDataSourceProxy routing(DataSource primary, DataSource replica) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(replica);
+        // Both pools hand out connections with auto-commit off (see provider_disables_autocommit)
+        proxy.setDefaultAutoCommit(false);
+        return proxy;
+    }
+}
@@ -1,26 +1,54 @@
 package com.example.userservice.config;
 
+import com.example.userservice.event.UserEvent;
+import com.example.userservice.event.UserEventSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
 public class KafkaProducerConfig {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${user.kafka.producer.linger-ms:10}")
+    private int lingerMs;
+
+    @Value("${user.kafka.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${user.kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${user.kafka.producer.max-block-ms:2000}")
+    private long maxBlockMs;
+
+    @Value("${user.kafka.user-events-partitions:12}")
+    private int userEventsPartitions;
+
+    public KafkaProducerConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @Bean
     public ProducerFactory<String, String> producerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        Map<String, Object> configProps = producerProps();
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        return instrumented(new DefaultKafkaProducerFactory<>(configProps));
     }
 
     @Bean
@@ -28,8 +56,47 @@ public class KafkaProducerConfig {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    // user-events values use the versioned binary format from UserEventCodec
+    @Bean
+    public ProducerFactory<String, UserEvent> userEventProducerFactory() {
+        Map<String, Object> configProps = producerProps();
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, UserEventSerializer.class);
+        return instrumented(new DefaultKafkaProducerFactory<>(configProps));
+    }
+
+    @Bean
+    public KafkaTemplate<String, UserEvent> userEventKafkaTemplate() {
+        return new KafkaTemplate<>(userEventProducerFactory());
+    }
+
+    // Exposes the producer client's own metrics (batch size, record send rate, request latency) as kafka.producer.*
+    private <K, V> ProducerFactory<K, V> instrumented(DefaultKafkaProducerFactory<K, V> factory) {
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
+    }
+
+    private Map<String, Object> producerProps() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        // Batch small records for a few ms and compress the batch instead of one request per event
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        // Idempotence keeps per-key ordering intact across retries with several in-flight batches
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        // Bound how long send() may block a caller when metadata is missing or the buffer is full
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        return configProps;
+    }
+
+    // Keyed by user id, so partitions can grow while events for one user stay in order
+    @Bean
+    public NewTopic userEvents() { return TopicBuilder.name("user-events").partitions(userEventsPartitions).replicas(1).build(); }
+
     @Bean
-    public NewTopic userEvents() { return TopicBuilder.name("user-events").partitions(1).replicas(1).build(); }
+    public NewTopic userCacheInvalidation() { return TopicBuilder.name("user-cache-invalidation").partitions(1).replicas(1).build(); }
 
     @Bean
     public NewTopic accountEvents() { return TopicBuilder.name("account-events").partitions(1).replicas(1).build(); }
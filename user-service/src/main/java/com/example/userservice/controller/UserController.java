@@ -1,12 +1,26 @@
 package com.example.userservice.controller;
+import com.example.userservice.dto.BulkRegistrationResult;
+import com.example.userservice.dto.CursorPage;
+import com.example.userservice.dto.SearchPage;
+import com.example.userservice.dto.UserEmail;
 import com.example.userservice.dto.UserLoginRequest;
+import com.example.userservice.dto.UserProfile;
 import com.example.userservice.dto.UserRegistrationRequest;
+import com.example.userservice.dto.UserSearchCriteria;
+import com.example.userservice.dto.UserSummary;
 import com.example.userservice.entity.User;
+import com.example.userservice.service.BulkRegistrationService;
 import com.example.userservice.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 
@@ -16,53 +30,98 @@ import java.util.Map;
 public class UserController {
 
     private final UserService service;
+    private final BulkRegistrationService bulkRegistrationService;
+    private final ObjectMapper objectMapper;
 
     //  Register a user
     @PostMapping("/register")
-    public ResponseEntity<User> register(@Valid @RequestBody UserRegistrationRequest request) {
-        return ResponseEntity.ok(service.register(request));
+    public ResponseEntity<UserProfile> register(@Valid @RequestBody UserRegistrationRequest request) {
+        return ResponseEntity.ok(UserProfile.from(service.register(request)));
+    }
+
+    // Register up to 5000 users in one call; each row is validated on its own and reported by index
+    @PostMapping("/bulk/register")
+    public ResponseEntity<List<BulkRegistrationResult>> registerBulk(@RequestBody List<UserRegistrationRequest> requests) {
+        return ResponseEntity.ok(bulkRegistrationService.registerAll(requests));
+    }
+
+    // GET /api/users/bulk?ids=1,2,3&emails=a@b.com,c@d.com
+    @GetMapping("/bulk")
+    public ResponseEntity<List<UserSummary>> getUsersBulk(
+            @RequestParam(required = false) List<Long> ids,
+            @RequestParam(required = false) List<String> emails) {
+        return ResponseEntity.ok(service.getUsersBulk(ids, emails));
     }
 
     // Get user by ID
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
-        return ResponseEntity.ok(service.getUserById(id));
+    public ResponseEntity<UserProfile> getUserById(@PathVariable Long id) {
+        return ResponseEntity.ok(UserProfile.from(service.getUserById(id)));
+    }
+
+    // Email only: GET /api/users/{userId}/email
+    @GetMapping("/{userId}/email")
+    public ResponseEntity<UserEmail> getUserEmail(@PathVariable Long userId) {
+        return service.getUserEmail(userId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
-    //  Get all users
+    //  List users a page at a time: GET /api/users?afterId=<nextCursor>&limit=100
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(service.getAllUsers());
+    public ResponseEntity<CursorPage<UserSummary>> getUsers(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(service.getUsersPage(afterId, limit));
     }
 
-    // Get user by email
-    @GetMapping("/email/{email}")
-    public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
-        return ResponseEntity.ok(service.getUserByEmail(email));
+    // GET /api/users/search?name=ali&state=Karnataka&sortBy=CREATED_AT&direction=DESC&limit=50
+    @GetMapping("/search")
+    public ResponseEntity<SearchPage<UserSummary>> searchUsers(
+            UserSearchCriteria criteria,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(service.searchUsers(criteria, cursor, limit));
     }
 
+    // Stream every user as newline-delimited JSON without buffering the table in memory
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        StreamingResponseBody body = out -> service.streamAllUsers(user -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(user));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 
-//    @GetMapping("/{userId}/email")
-//    public ResponseEntity<String> getUserEmailById(@PathVariable Long userId) {
-//        return ResponseEntity.ok(service.getUserEmailById(userId));
-//    }
+    // Get user by email
+    @GetMapping("/email/{email}")
+    public ResponseEntity<UserProfile> getUserByEmail(@PathVariable String email) {
+        return ResponseEntity.ok(UserProfile.from(service.getUserByEmail(email)));
+    }
 
     @GetMapping("/mobile/{mobile}")
-    public ResponseEntity<User> getUserByMobile(@PathVariable String mobile) {
-        return ResponseEntity.ok(service.getUserByMobile(mobile));
+    public ResponseEntity<UserProfile> getUserByMobile(@PathVariable String mobile) {
+        return ResponseEntity.ok(UserProfile.from(service.getUserByMobile(mobile)));
     }
 
     @PostMapping("/login")
-    public ResponseEntity<User> login(@RequestBody UserLoginRequest request) {
+    public ResponseEntity<UserProfile> login(@RequestBody UserLoginRequest request) {
         User user = service.login(request.getUsername(), request.getPassword());
-        return ResponseEntity.ok(user);
+        return ResponseEntity.ok(UserProfile.from(user));
     }
 
     @PostMapping("/login/mpin")
-    public ResponseEntity<User> loginWithMpin(@RequestBody Map<String, String> request) {
+    public ResponseEntity<UserProfile> loginWithMpin(@RequestBody Map<String, String> request) {
         String identifier = request.get("mobile/email"); // mobile or email
         String mpin = request.get("mpin");
-        return ResponseEntity.ok(service.loginWithMpin(identifier, mpin));
+        return ResponseEntity.ok(UserProfile.from(service.loginWithMpin(identifier, mpin)));
     }
 
     @PutMapping("/{userId}/update-password")
@@ -89,17 +148,27 @@ public class UserController {
         return ResponseEntity.ok("User account deactivated successfully.");
     }
 
-    // GET /api/users/status/ACTIVE
+    // GET /api/users/status/ACTIVE?afterId=0&limit=100
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<User>> getUsersByAccountStatus(@PathVariable String status) {
-        User.AccountStatus accountStatus;
-        try {
-            accountStatus = User.AccountStatus.valueOf(status.toUpperCase());
-        } catch (IllegalArgumentException e) {
+    public ResponseEntity<CursorPage<UserSummary>> getUsersByAccountStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "100") int limit) {
+        User.AccountStatus accountStatus = parseStatus(status);
+        if (accountStatus == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(service.getUsersByAccountStatus(accountStatus, afterId, limit));
+    }
+
+    // GET /api/users/status/ACTIVE/count
+    @GetMapping("/status/{status}/count")
+    public ResponseEntity<Long> countUsersByAccountStatus(@PathVariable String status) {
+        User.AccountStatus accountStatus = parseStatus(status);
+        if (accountStatus == null) {
             return ResponseEntity.badRequest().build();
         }
-        List<User> users = service.getUsersByAccountStatus(accountStatus);
-        return ResponseEntity.ok(users);
+        return ResponseEntity.ok(service.countUsersByAccountStatus(accountStatus));
     }
 
     @DeleteMapping("/email/{email}")
@@ -108,4 +177,12 @@ public class UserController {
         return ResponseEntity.ok("User with email " + email + " deleted successfully.");
     }
 
+    private static User.AccountStatus parseStatus(String status) {
+        try {
+            return User.AccountStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
 }
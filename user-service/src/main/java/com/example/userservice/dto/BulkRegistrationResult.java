@@ -0,0 +1,27 @@
+package com.example.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Outcome of one row of a bulk registration, reported at the row's index in the request
+@Data
+@AllArgsConstructor
+public class BulkRegistrationResult {
+
+    private int index;
+    private Status status;
+    private Long userId;
+    private String error;
+
+    public enum Status {
+        CREATED, REJECTED
+    }
+
+    public static BulkRegistrationResult created(int index, Long userId) {
+        return new BulkRegistrationResult(index, Status.CREATED, userId, null);
+    }
+
+    public static BulkRegistrationResult rejected(int index, String error) {
+        return new BulkRegistrationResult(index, Status.REJECTED, null, error);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// One page of search results; pass nextCursor back unchanged, with the same filters and sort, for the next page
+@Data
+@AllArgsConstructor
+public class SearchPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,10 @@
+package com.example.userservice.dto;
+
+import lombok.Value;
+
+// Email-only projection for callers that just need to contact a user
+@Value
+public class UserEmail {
+    Long id;
+    String email;
+}
@@ -0,0 +1,49 @@
+package com.example.userservice.dto;
+
+import com.example.userservice.entity.User;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Single-user response: the profile fields only, never credentials (password hash, MPIN) or lock state
+@Value
+@Builder
+public class UserProfile {
+    Long id;
+    String username;
+    String firstName;
+    String lastName;
+    LocalDate dob;
+    String email;
+    String mobile;
+    String address;
+    String state;
+    String pincode;
+    String country;
+    String gender;
+    User.AccountStatus accountStatus;
+    User.Role role;
+    LocalDateTime createdAt;
+
+    public static UserProfile from(User user) {
+        return UserProfile.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .dob(user.getDob())
+                .email(user.getEmail())
+                .mobile(user.getMobile())
+                .address(user.getAddress())
+                .state(user.getState())
+                .pincode(user.getPincode())
+                .country(user.getCountry())
+                .gender(user.getGender())
+                .accountStatus(user.getAccountStatus())
+                .role(user.getRole())
+                .createdAt(user.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.userservice.dto;
+
+import com.example.userservice.entity.User;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// Filters for GET /api/users/search; every field is optional and the given ones are ANDed together
+@Data
+public class UserSearchCriteria {
+
+    // Prefix of the full name ("ali", "alice jo") or of the last name; case and accents are ignored
+    private String name;
+    private String pan;
+    private String pincode;
+    private String state;
+    private User.AccountStatus status;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+
+    private SortField sortBy = SortField.ID;
+    private SortDirection direction = SortDirection.ASC;
+
+    public enum SortField {
+        ID, CREATED_AT
+    }
+
+    public enum SortDirection {
+        ASC, DESC
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.userservice.dto;
+
+import com.example.userservice.entity.User;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+// Listing view of a user; also a repository projection, so listings select only these columns
+@Value
+public class UserSummary {
+    Long id;
+    String username;
+    String firstName;
+    String lastName;
+    String email;
+    User.AccountStatus accountStatus;
+    LocalDateTime createdAt;
+
+    public static UserSummary from(User user) {
+        return new UserSummary(user.getId(), user.getUsername(), user.getFirstName(), user.getLastName(),
+                user.getEmail(), user.getAccountStatus(), user.getCreatedAt());
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.userservice.entity;
+
+import com.example.userservice.event.UserEventType;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// A user event waiting to be relayed to Kafka; written in the same transaction as the user change
+@Entity
+@Table(name = "user_outbox",
+        indexes = @Index(name = "idx_user_outbox_created_at", columnList = "created_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    // IDENTITY rather than a pooled sequence: the relay sends in id order, so ids must follow insert order
+    // across replicas. With per-replica id blocks a user's later event could get a lower id and go first.
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private UserEventType eventType;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    private String email;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Set while a relay is sending this row; another relay leaves it alone until the lease runs out
+    private LocalDateTime claimedUntil;
+}
@@ -5,7 +5,8 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "password_history")
+@Table(name = "password_history",
+        indexes = @Index(name = "idx_password_history_user_changed", columnList = "user_id, changed_at"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -14,7 +15,8 @@ import java.time.LocalDateTime;
 public class PasswordHistory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "password_history_id_seq")
+    @SequenceGenerator(name = "password_history_id_seq", sequenceName = "password_history_id_seq", allocationSize = 50)
     private Long id;
 
     private Long userId;
@@ -4,22 +4,57 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import java.text.Normalizer;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_status_id", columnList = "account_status, id"),
+        // Lets LockExpirySweeper range-scan just the LOCKED rows whose lock has run out
+        @Index(name = "idx_users_status_locked_until", columnList = "account_status, account_locked_until"),
+        // Support search: each filter column leads an index, with id as the keyset tie-breaker
+        @Index(name = "idx_users_pincode_id", columnList = "pincode, id"),
+        @Index(name = "idx_users_search_state_id", columnList = "search_state, id"),
+        @Index(name = "idx_users_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_users_search_name", columnList = "search_name"),
+        @Index(name = "idx_users_search_last_name", columnList = "search_last_name")
+})
+// Second-level cached (regions configured in application.conf): findById inside write flows and
+// natural-id lookups by username are served from memory; writes update the entry on commit
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
+@NaturalIdCache(region = User.NATURAL_ID_CACHE_REGION)
+// UPDATEs name only the changed columns (one or two per mutation) and carry "where version = ?"
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class User {
 
+    public static final String CACHE_REGION = "users";
+    public static final String NATURAL_ID_CACHE_REGION = "users-by-username";
+
+    // Ids come from a pooled sequence (a table on MySQL), reserved 50 at a time per replica,
+    // so inserts can be JDBC-batched; IDENTITY would force one round-trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_id_seq")
+    @SequenceGenerator(name = "user_id_seq", sequenceName = "user_id_seq", allocationSize = 50)
     private Long id;
 
+    // Optimistic lock: a write based on an outdated read (a stale cached copy, or a concurrent change
+    // between check and update) fails instead of silently overwriting the newer row
+    @Version
+    private long version;
+
     private String firstName;
 
     private String lastName;
@@ -29,6 +64,8 @@ public class User {
     @Column(unique = true, nullable = false)
     private String pan;
 
+    // Immutable once registered; Hibernate rejects a flush that changes it
+    @NaturalId
     @Column(unique = true, nullable = false)
     private String username;
 
@@ -36,7 +73,7 @@ public class User {
 //    @Column(unique = true, nullable = false)
 //    private String mobile;
 
-    @Column(name = "mobile_number", nullable = false, length = 10)
+    @Column(name = "mobile_number", unique = true, nullable = false, length = 10)
     private String mobile;
 
 
@@ -69,6 +106,19 @@ public class User {
 
     private LocalDateTime createdAt;
 
+    // Lower-cased, accent-free copies of the name kept for prefix search ("first last" and "last")
+    @JsonIgnore
+    @Column(length = 201)
+    private String searchName;
+
+    @JsonIgnore
+    @Column(length = 100)
+    private String searchLastName;
+
+    // Same normalisation for the state filter, so "karnataka" finds "Karnataka"
+    @JsonIgnore
+    private String searchState;
+
     private String gender;
 
     @Enumerated(EnumType.STRING)
@@ -79,10 +129,30 @@ public class User {
 
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        // Match the column's microsecond precision so keyset cursors agree with what was stored
+        createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         if (accountStatus == null) {
             accountStatus = AccountStatus.ACTIVE;
         }
+        updateSearchColumns();
+    }
+
+    @PreUpdate
+    protected void updateSearchColumns() {
+        String first = normalizeSearchText(firstName);
+        String last = normalizeSearchText(lastName);
+        searchName = (first + " " + last).trim();
+        searchLastName = last;
+        searchState = normalizeSearchText(state);
+    }
+
+    // Form used for both the stored search columns and incoming name and state queries
+    public static String normalizeSearchText(String name) {
+        if (name == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(name, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
     }
 
     public enum AccountStatus {
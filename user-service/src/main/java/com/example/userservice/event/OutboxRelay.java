@@ -0,0 +1,161 @@
+package com.example.userservice.event;
+
+import com.example.userservice.entity.OutboxEvent;
+import com.example.userservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Drains the user_outbox table to user-events in id order. Rows are deleted only after the broker
+// has acknowledged them, so delivery is at-least-once: a crash between send and delete re-sends.
+// A batch is claimed in a short READ COMMITTED transaction that commits before anything is sent, so no
+// row or gap lock is held while waiting on the broker and request transactions inserting outbox rows
+// never queue behind the relay.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "user.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    public static final String TOPIC = "user-events";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, UserEvent> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Duration claimLease;
+
+    private final Map<UserEventType, Counter> sent = new EnumMap<>(UserEventType.class);
+    private final Map<UserEventType, Counter> failed = new EnumMap<>(UserEventType.class);
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaTemplate<String, UserEvent> kafkaTemplate,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${user.outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${user.outbox.relay.send-timeout:10s}") Duration sendTimeout,
+                       @Value("${user.outbox.relay.claim-lease:30s}") Duration claimLease,
+                       MeterRegistry meterRegistry) {
+        if (claimLease.compareTo(sendTimeout) <= 0) {
+            throw new IllegalArgumentException("user.outbox.relay.claim-lease must be longer than send-timeout");
+        }
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        // READ COMMITTED: MySQL takes no gap locks for the claiming SELECT ... FOR UPDATE, so concurrent
+        // inserts of new outbox rows are not blocked even for the few milliseconds of the claim
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.claimLease = claimLease;
+        for (UserEventType type : UserEventType.values()) {
+            if (type == UserEventType.UNKNOWN) {
+                continue;
+            }
+            sent.put(type, Counter.builder("user.events.published")
+                    .tag("type", type.name()).tag("result", "success").register(meterRegistry));
+            failed.put(type, Counter.builder("user.events.published")
+                    .tag("type", type.name()).tag("result", "failure").register(meterRegistry));
+        }
+        Gauge.builder("user.outbox.pending", outboxEventRepository, OutboxEventRepository::count)
+                .register(meterRegistry);
+        Gauge.builder("user.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${user.outbox.relay.interval-ms:200}")
+    public void relay() {
+        boolean fullBatch;
+        do {
+            List<OutboxEvent> batch = transactionTemplate.execute(status -> claimBatch());
+            fullBatch = !batch.isEmpty() && relayBatch(batch) == batchSize;
+        } while (fullBatch);
+        lagMillis.set(outboxEventRepository.findFirstByOrderByCreatedAtAsc()
+                .map(oldest -> Duration.between(oldest.getCreatedAt(), LocalDateTime.now()).toMillis())
+                .orElse(0L));
+    }
+
+    // Leases the oldest rows to this relay; the row locks last only until this transaction commits.
+    // If any of them is still leased, a relay on another replica is sending them: back off rather than
+    // send later events ahead of it, which would break per-user order.
+    private List<OutboxEvent> claimBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findAllByOrderByIdAsc(Limit.of(batchSize));
+        LocalDateTime now = LocalDateTime.now();
+        boolean inFlight = batch.stream()
+                .anyMatch(event -> event.getClaimedUntil() != null && event.getClaimedUntil().isAfter(now));
+        if (inFlight) {
+            return List.of();
+        }
+        LocalDateTime claimedUntil = now.plus(claimLease);
+        batch.forEach(event -> event.setClaimedUntil(claimedUntil));
+        return batch;
+    }
+
+    // Sends a claimed batch outside any transaction, then deletes the acknowledged prefix and releases
+    // the rest for the next round; returns how many rows were delivered
+    private int relayBatch(List<OutboxEvent> batch) {
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            sends.add(kafkaTemplate.send(TOPIC, String.valueOf(event.getUserId()), toUserEvent(event)));
+        }
+
+        // One deadline for the whole batch keeps the wait well inside the claim lease.
+        // Stop at the first failure: later rows stay queued behind it so per-user order is kept.
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        List<Long> delivered = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                sent.get(event.getEventType()).increment();
+                delivered.add(event.getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                failed.get(event.getEventType()).increment();
+                log.error("Failed to relay outbox event {} ({}) for user {}",
+                        event.getId(), event.getEventType(), event.getUserId(), e);
+                break;
+            }
+        }
+
+        List<Long> undelivered = batch.subList(delivered.size(), batch.size()).stream()
+                .map(OutboxEvent::getId)
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxEventRepository.deleteAllByIdInBatch(delivered);
+            if (!undelivered.isEmpty()) {
+                outboxEventRepository.releaseClaims(undelivered);
+            }
+        });
+        return delivered.size();
+    }
+
+    private static UserEvent toUserEvent(OutboxEvent event) {
+        long occurredAt = event.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new UserEvent(event.getEventType(), event.getUserId(), occurredAt, event.getEmail());
+    }
+}
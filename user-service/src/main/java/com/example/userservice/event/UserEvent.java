@@ -0,0 +1,5 @@
+package com.example.userservice.event;
+
+// A user lifecycle event as carried on user-events; email may be null
+public record UserEvent(UserEventType type, long userId, long occurredAt, String email) {
+}
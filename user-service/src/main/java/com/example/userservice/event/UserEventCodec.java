@@ -0,0 +1,119 @@
+package com.example.userservice.event;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary wire format for {@link UserEvent}, replacing the old "TYPE:id:email" strings.
+ *
+ * <pre>
+ * user-event v1
+ *   u8      schema version (1)
+ *   u8      event type code (see UserEventType)
+ *   varint  user id
+ *   varint  occurredAt, epoch millis
+ *   varint  email length in UTF-8 bytes + 1 (0 = no email)
+ *   bytes   email, UTF-8
+ * </pre>
+ *
+ * Varints are unsigned LEB128. Readers must reject unknown versions; new fields are added
+ * by bumping the version and appending, so a v2 reader can still decode v1 records.
+ *
+ * New event types do not bump the version: they only take a new type code. A reader that does
+ * not know the code decodes the record as {@link UserEventType#UNKNOWN} with the rest of its
+ * fields intact, and consumers must skip such events rather than fail on them. So a new type
+ * can be published before every consumer has been upgraded.
+ */
+public final class UserEventCodec {
+
+    public static final byte VERSION = 1;
+
+    private UserEventCodec() {
+    }
+
+    public static byte[] encode(UserEvent event) {
+        if (event.type() == UserEventType.UNKNOWN) {
+            throw new IllegalArgumentException("UNKNOWN user events cannot be encoded");
+        }
+        byte[] email = event.email() == null ? null : event.email().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(24 + (email == null ? 0 : email.length));
+        out.write(VERSION);
+        out.write(event.type().code());
+        writeVarLong(out, event.userId());
+        writeVarLong(out, event.occurredAt());
+        if (email == null) {
+            writeVarLong(out, 0);
+        } else {
+            writeVarLong(out, email.length + 1L);
+            out.write(email, 0, email.length);
+        }
+        return out.toByteArray();
+    }
+
+    public static UserEvent decode(byte[] data) {
+        Reader in = new Reader(data);
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported user event version: " + version);
+        }
+        UserEventType type = UserEventType.fromCode(in.readByte());
+        long userId = in.readVarLong();
+        long occurredAt = in.readVarLong();
+        // Bounded while still a long: a corrupt length must not wrap into a small or negative int
+        long emailLength = in.readVarLong();
+        if (emailLength < 0 || emailLength - 1 > in.remaining()) {
+            throw new IllegalArgumentException("Email length " + emailLength + " exceeds the user event");
+        }
+        String email = emailLength == 0 ? null : in.readUtf8((int) emailLength - 1);
+        return new UserEvent(type, userId, occurredAt, email);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        int readByte() {
+            if (position >= data.length) {
+                throw new IllegalArgumentException("Truncated user event");
+            }
+            return data[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in user event");
+        }
+
+        int remaining() {
+            return data.length - position;
+        }
+
+        String readUtf8(int length) {
+            if (length < 0 || position + length > data.length) {
+                throw new IllegalArgumentException("Truncated user event");
+            }
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.userservice.event;
+
+import org.apache.kafka.common.serialization.Deserializer;
+
+// Counterpart of UserEventSerializer, for consumers of user-events
+public class UserEventDeserializer implements Deserializer<UserEvent> {
+
+    @Override
+    public UserEvent deserialize(String topic, byte[] data) {
+        return data == null ? null : UserEventCodec.decode(data);
+    }
+}
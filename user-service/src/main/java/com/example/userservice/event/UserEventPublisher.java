@@ -0,0 +1,102 @@
+package com.example.userservice.event;
+
+import com.example.userservice.entity.OutboxEvent;
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Records user lifecycle events in the outbox as part of the caller's transaction, so an event
+// exists exactly when its change is committed. OutboxRelay ships them to Kafka in the background.
+@Slf4j
+@Component
+public class UserEventPublisher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, UserEvent> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor directSender;
+
+    public UserEventPublisher(OutboxEventRepository outboxEventRepository,
+                              KafkaTemplate<String, UserEvent> kafkaTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${user.events.direct.queue-capacity:1000}") int directQueueCapacity) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        // One sender thread and a bounded queue: send() can block for max-block-ms while the broker is
+        // unreachable or the producer buffer is full, and that must stall this thread, not a login.
+        // Once the queue is full further direct events are dropped and counted.
+        this.directSender = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(directQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-events-direct");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("user.events.direct.queue", directSender, e -> e.getQueue().size()).register(meterRegistry);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(UserEventType type, User user) {
+        publish(type, user.getId(), user.getEmail());
+    }
+
+    // For bulk updates that change rows without loading the entities
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(UserEventType type, Long userId, String email) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .eventType(type)
+                .userId(userId)
+                .email(email)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    // For events that change no row (logins): best effort, so a clean login needs no database write at
+    // all. Handed to the sender thread and never waits on the broker; dropped if the queue is full.
+    public void publishDirect(UserEventType type, User user) {
+        UserEvent event = new UserEvent(type, user.getId(), System.currentTimeMillis(), user.getEmail());
+        try {
+            directSender.execute(() -> send(event));
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("user.events.published", "type", type.name(), "result", "dropped").increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        directSender.shutdown();
+    }
+
+    private void send(UserEvent event) {
+        try {
+            kafkaTemplate.send(OutboxRelay.TOPIC, String.valueOf(event.userId()), event)
+                    .whenComplete((result, ex) -> published(event, ex));
+        } catch (RuntimeException e) {
+            published(event, e);
+        }
+    }
+
+    private void published(UserEvent event, Throwable ex) {
+        meterRegistry.counter("user.events.published",
+                "type", event.type().name(), "result", ex == null ? "success" : "failure").increment();
+        if (ex != null) {
+            log.warn("Failed to publish {} for user {}", event.type(), event.userId(), ex);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.userservice.event;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+// Kafka value serializer for user-events using the compact UserEventCodec format
+public class UserEventSerializer implements Serializer<UserEvent> {
+
+    @Override
+    public byte[] serialize(String topic, UserEvent event) {
+        return event == null ? null : UserEventCodec.encode(event);
+    }
+}
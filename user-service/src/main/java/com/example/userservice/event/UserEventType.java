@@ -0,0 +1,36 @@
+package com.example.userservice.event;
+
+// Lifecycle events published on user-events. The code is the value written on the wire,
+// so existing codes must never change; add new types with new codes.
+public enum UserEventType {
+    // What an older reader decodes a type added after it was built to; never published
+    UNKNOWN(0),
+    USER_REGISTERED(1),
+    USER_LOGGED_IN(2),
+    USER_LOCKED(3),
+    MPIN_RESET(4),
+    PASSWORD_CHANGED(5),
+    USER_DEACTIVATED(6),
+    USER_DELETED(7),
+    USER_UNLOCKED(8);
+
+    private final int code;
+
+    UserEventType(int code) {
+        this.code = code;
+    }
+
+    public int code() {
+        return code;
+    }
+
+    // Codes this build does not know map to UNKNOWN, so consumers can skip them instead of failing
+    public static UserEventType fromCode(int code) {
+        for (UserEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return UNKNOWN;
+    }
+}
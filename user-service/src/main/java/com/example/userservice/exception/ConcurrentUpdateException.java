@@ -0,0 +1,12 @@
+package com.example.userservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// The user row changed between being read and being written; the client should retry
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConcurrentUpdateException extends RuntimeException {
+    public ConcurrentUpdateException(Long userId) {
+        super("User " + userId + " was modified concurrently, please retry");
+    }
+}
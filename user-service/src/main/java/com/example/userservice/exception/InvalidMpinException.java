@@ -0,0 +1,8 @@
+package com.example.userservice.exception;
+
+// A wrong MPIN; the attempt bookkeeping written before it is thrown must still be committed
+public class InvalidMpinException extends RuntimeException {
+    public InvalidMpinException(String message) {
+        super(message);
+    }
+}
@@ -1,10 +1,25 @@
 package com.example.userservice.repository;
 
 import com.example.userservice.entity.PasswordHistory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface PasswordHistoryRepository extends JpaRepository<PasswordHistory, Long> {
-    List<PasswordHistory> findTop5ByUserIdOrderByChangedAtDesc(Long userId);
-}
 
+    // Newest first; served from idx_password_history_user_changed, so cost depends only on the limit
+    List<PasswordHistory> findByUserIdOrderByChangedAtDescIdDesc(Long userId, Limit limit);
+
+    // Deletes every row older than the given (changedAt, id) position in the user's history
+    @Modifying
+    @Query("delete from PasswordHistory h where h.userId = :userId and "
+            + "(h.changedAt < :changedAt or (h.changedAt = :changedAt and h.id < :id))")
+    int deleteOlderThan(@Param("userId") Long userId,
+                        @Param("changedAt") LocalDateTime changedAt,
+                        @Param("id") Long id);
+}
@@ -0,0 +1,11 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.entity.User;
+
+import java.util.Optional;
+
+public interface UserNaturalIdRepository {
+
+    // Username is User's natural id, so this resolves through the natural-id cache before touching the table
+    Optional<User> findByUsername(String username);
+}
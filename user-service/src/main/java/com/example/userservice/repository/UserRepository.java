@@ -1,15 +1,74 @@
 package com.example.userservice.repository;
 
+import com.example.userservice.dto.UserEmail;
+import com.example.userservice.dto.UserSummary;
 import com.example.userservice.entity.User;
 import com.example.userservice.entity.User.AccountStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserSearchRepository, UserNaturalIdRepository,
+        UserRowLockRepository {
+    // Not query-cached: Hibernate would also cache a miss, and only a write on this node clears it. UserCache
+    // in front of these lookups keeps hits only and is invalidated across replicas
     Optional<User> findByEmail(String email);
+
     Optional<User> findByMobile(String mobile);
-    List<User> findByAccountStatus(AccountStatus status);
-    Optional<User> findByUsername(String username);
+
+    // Keyset page: users with id strictly after the cursor, in id order, selecting only the summary columns.
+    // Read-only on its own so streamAllUsers batches run on the replica without an enclosing transaction
+    @Transactional(readOnly = true)
+    List<UserSummary> findSummariesByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Keyset page within one status; served by the (account_status, id) index
+    List<UserSummary> findSummariesByAccountStatusAndIdGreaterThanOrderByIdAsc(AccountStatus status, Long afterId, Limit limit);
+
+    long countByAccountStatus(AccountStatus status);
+
+    // Expired locks, oldest first, via the (account_status, account_locked_until) index. Row locks
+    // make a sweeper on another replica wait for this batch instead of unlocking the same users.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select new com.example.userservice.dto.UserEmail(u.id, u.email) from User u "
+            + "where u.accountStatus = com.example.userservice.entity.User.AccountStatus.LOCKED "
+            + "and u.accountLockedUntil <= :now order by u.accountLockedUntil")
+    List<UserEmail> findExpiredLocks(@Param("now") LocalDateTime now, Limit limit);
+
+    // One statement per batch; re-checks the expiry so a lock renewed meanwhile is left alone, and bumps
+    // the version so a write based on the locked row fails its optimistic check
+    @Modifying
+    @Query("update User u set u.accountStatus = com.example.userservice.entity.User.AccountStatus.ACTIVE, "
+            + "u.accountLockedUntil = null, u.failedMpinAttempts = 0, u.version = u.version + 1 "
+            + "where u.id in :ids and u.accountStatus = com.example.userservice.entity.User.AccountStatus.LOCKED "
+            + "and u.accountLockedUntil <= :now")
+    int unlockExpired(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    List<UserSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    List<UserSummary> findSummariesByEmailIn(Collection<String> emails);
+
+    Optional<UserEmail> findEmailById(Long id);
+
+    // Which of these identifiers are already taken; used to pre-check bulk registrations in one query each
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("select u.pan from User u where u.pan in :pans")
+    List<String> findExistingPans(@Param("pans") Collection<String> pans);
+
+    @Query("select u.mobile from User u where u.mobile in :mobiles")
+    List<String> findExistingMobiles(@Param("mobiles") Collection<String> mobiles);
 }
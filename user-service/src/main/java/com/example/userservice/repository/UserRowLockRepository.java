@@ -0,0 +1,11 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.entity.User;
+
+import java.util.Optional;
+
+public interface UserRowLockRepository {
+
+    // The row as it is now, read under a row lock; for rare transitions that must be decided on current state
+    Optional<User> findCurrentForUpdate(Long id);
+}
@@ -0,0 +1,28 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+// A locking query alone would hand back an instance this persistence context already holds without
+// re-reading it, and that instance may have come from a cache. refresh re-reads the row FOR UPDATE.
+class UserRowLockRepositoryImpl implements UserRowLockRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<User> findCurrentForUpdate(Long id) {
+        User user = entityManager.find(User.class, id);
+        if (user != null) {
+            entityManager.refresh(user, LockModeType.PESSIMISTIC_WRITE);
+        }
+        return Optional.ofNullable(user);
+    }
+}
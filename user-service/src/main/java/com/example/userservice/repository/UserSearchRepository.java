@@ -0,0 +1,14 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.dto.UserSummary;
+import com.example.userservice.entity.User;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface UserSearchRepository {
+
+    // Up to limit users matching spec, selecting only the UserSummary columns
+    List<UserSummary> findSummaries(Specification<User> spec, Sort sort, int limit);
+}
@@ -0,0 +1,66 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.entity.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+// Composable search filters over User; each one targets an indexed column
+public final class UserSpecifications {
+
+    private UserSpecifications() {
+    }
+
+    // Prefix match on the normalised full name or last name (a LIKE 'x%' range scan on either index)
+    public static Specification<User> nameStartsWith(String name) {
+        String prefix = escapeLike(User.normalizeSearchText(name)) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(root.get("searchName"), prefix, '\\'),
+                cb.like(root.get("searchLastName"), prefix, '\\'));
+    }
+
+    public static Specification<User> panEquals(String pan) {
+        return (root, query, cb) -> cb.equal(root.get("pan"), pan.trim().toUpperCase());
+    }
+
+    public static Specification<User> pincodeEquals(String pincode) {
+        return (root, query, cb) -> cb.equal(root.get("pincode"), pincode.trim());
+    }
+
+    // Matched on the normalised copy, ignoring case, accents and extra spaces like the name filter
+    public static Specification<User> stateEquals(String state) {
+        String normalized = User.normalizeSearchText(state);
+        return (root, query, cb) -> cb.equal(root.get("searchState"), normalized);
+    }
+
+    public static Specification<User> statusEquals(User.AccountStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("accountStatus"), status);
+    }
+
+    public static Specification<User> createdFrom(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    public static Specification<User> createdBefore(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThan(root.get("createdAt"), to);
+    }
+
+    // Keyset position: rows strictly after (createdAt, id) in the given direction
+    public static Specification<User> afterCreated(LocalDateTime createdAt, Long id, boolean descending) {
+        return (root, query, cb) -> descending
+                ? cb.or(cb.lessThan(root.get("createdAt"), createdAt),
+                        cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.get("id"), id)))
+                : cb.or(cb.greaterThan(root.get("createdAt"), createdAt),
+                        cb.and(cb.equal(root.get("createdAt"), createdAt), cb.greaterThan(root.get("id"), id)));
+    }
+
+    public static Specification<User> afterId(Long id, boolean descending) {
+        return (root, query, cb) -> descending
+                ? cb.lessThan(root.get("id"), id)
+                : cb.greaterThan(root.get("id"), id);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.userservice.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// Throttles POST /api/users/login and /api/users/login/mpin per client IP and per identifier before
+// the request reaches the controller, so rejected attempts cost no repository lookup or BCrypt work.
+@Component
+@RequiredArgsConstructor
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    static final String LOGIN_PATH = "/api/users/login";
+    static final String MPIN_LOGIN_PATH = "/api/users/login/mpin";
+
+    // Login bodies are tiny; anything bigger is not inspected for an identifier
+    private static final int MAX_INSPECTED_BODY = 4096;
+
+    private final LoginRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !"POST".equals(request.getMethod())
+                || !(LOGIN_PATH.equals(path) || MPIN_LOGIN_PATH.equals(path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean mpin = MPIN_LOGIN_PATH.equals(request.getRequestURI());
+        byte[] body = request.getInputStream().readNBytes(MAX_INSPECTED_BODY + 1);
+        String identifier = body.length > MAX_INSPECTED_BODY ? null : identifier(body, mpin ? "mobile/email" : "username");
+        // The original client when the request came through a trusted proxy (server.forward-headers-strategy),
+        // otherwise the peer address
+        String clientIp = request.getRemoteAddr();
+
+        LoginRateLimiter.Scope exhausted = rateLimiter.tryAcquire(clientIp, identifier);
+        if (exhausted != null) {
+            meterRegistry.counter("user.ratelimit.rejected",
+                    "endpoint", mpin ? "login-mpin" : "login",
+                    "scope", exhausted.name().toLowerCase(Locale.ROOT)).increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(rateLimiter.retryAfterSeconds(exhausted, clientIp, identifier)));
+            response.setContentType("text/plain");
+            response.getWriter().write("Too many login attempts. Try again later.");
+            return;
+        }
+
+        chain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    private String identifier(byte[] body, String field) {
+        try {
+            JsonNode value = objectMapper.readTree(body).get(field);
+            return value == null || !value.isTextual() ? null : value.asText().trim().toLowerCase(Locale.ROOT);
+        } catch (IOException e) {
+            return null; // malformed JSON is still limited per IP; the controller reports the error
+        }
+    }
+
+    // Replays the body already read for inspection to the rest of the chain
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final HttpServletRequest original;
+        private final byte[] head;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] head) {
+            super(request);
+            this.original = request;
+            this.head = head;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            ServletInputStream rest = original.getInputStream();
+            ByteArrayInputStream buffered = new ByteArrayInputStream(head);
+            return new ServletInputStream() {
+                @Override
+                public int read() throws IOException {
+                    int b = buffered.read();
+                    return b != -1 ? b : rest.read();
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return buffered.available() == 0 && rest.isFinished();
+                }
+
+                @Override
+                public boolean isReady() {
+                    return buffered.available() > 0 || rest.isReady();
+                }
+
+                // Async reads are driven by the container's stream; the buffered head is readable at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    rest.setReadListener(listener);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding == null ? StandardCharsets.UTF_8.name() : encoding));
+        }
+    }
+}
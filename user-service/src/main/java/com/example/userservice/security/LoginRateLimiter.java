@@ -0,0 +1,58 @@
+package com.example.userservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Token buckets for login attempts, one per client IP and one per login identifier. Buckets sit in
+// bounded Caffeine maps and are dropped once idle, so memory stays capped under credential stuffing.
+@Component
+public class LoginRateLimiter {
+
+    public enum Scope {
+        IP, IDENTIFIER
+    }
+
+    private final Cache<String, TokenBucket> ipBuckets;
+    private final Cache<String, TokenBucket> identifierBuckets;
+
+    private final int ipCapacity;
+    private final double ipRefillPerSecond;
+    private final int identifierCapacity;
+    private final double identifierRefillPerSecond;
+
+    public LoginRateLimiter(@Value("${user.rate-limit.ip.capacity:50}") int ipCapacity,
+                            @Value("${user.rate-limit.ip.refill-per-minute:50}") int ipRefillPerMinute,
+                            @Value("${user.rate-limit.identifier.capacity:5}") int identifierCapacity,
+                            @Value("${user.rate-limit.identifier.refill-per-minute:5}") int identifierRefillPerMinute,
+                            @Value("${user.rate-limit.max-tracked-keys:100000}") long maxTrackedKeys,
+                            @Value("${user.rate-limit.idle-expiry:10m}") Duration idleExpiry) {
+        this.ipCapacity = ipCapacity;
+        this.ipRefillPerSecond = ipRefillPerMinute / 60d;
+        this.identifierCapacity = identifierCapacity;
+        this.identifierRefillPerSecond = identifierRefillPerMinute / 60d;
+        this.ipBuckets = Caffeine.newBuilder().maximumSize(maxTrackedKeys).expireAfterAccess(idleExpiry).build();
+        this.identifierBuckets = Caffeine.newBuilder().maximumSize(maxTrackedKeys).expireAfterAccess(idleExpiry).build();
+    }
+
+    // Takes one token for the IP and, if known, the identifier; returns the scope that ran out, or null
+    public Scope tryAcquire(String clientIp, String identifier) {
+        long now = System.nanoTime();
+        if (!ipBuckets.get(clientIp, ip -> new TokenBucket(ipCapacity, ipRefillPerSecond, now)).tryConsume(now)) {
+            return Scope.IP;
+        }
+        if (identifier != null && !identifierBuckets.get(identifier,
+                id -> new TokenBucket(identifierCapacity, identifierRefillPerSecond, now)).tryConsume(now)) {
+            return Scope.IDENTIFIER;
+        }
+        return null;
+    }
+
+    public long retryAfterSeconds(Scope scope, String clientIp, String identifier) {
+        TokenBucket bucket = scope == Scope.IP ? ipBuckets.getIfPresent(clientIp) : identifierBuckets.getIfPresent(identifier);
+        return bucket == null ? 1 : Math.max(1, bucket.secondsUntilNextToken(System.nanoTime()));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.userservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Counts failed MPIN attempts in memory so wrong guesses never write to the users table.
+// Counters live in a bounded Caffeine map (hash-striped, lock-free reads) and are bumped with
+// atomic increments; a counter expires one attempt window after the first failure. Only the
+// LOCKED/unlocked transitions are persisted. Counts are per replica, so a reset or unlock written
+// anywhere clears them: locally by the writer, on other replicas by UserCacheInvalidator.
+@Component
+public class MpinAttemptTracker {
+
+    public static final int MAX_ATTEMPTS = 3;
+
+    private final Cache<Long, AtomicInteger> failures;
+
+    public MpinAttemptTracker(@Value("${user.mpin.attempt-window:24h}") Duration attemptWindow,
+                              @Value("${user.mpin.max-tracked-users:1000000}") long maxTrackedUsers,
+                              MeterRegistry meterRegistry) {
+        this.failures = Caffeine.newBuilder()
+                .maximumSize(maxTrackedUsers)
+                .expireAfterWrite(attemptWindow)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, failures, "mpin-failures");
+    }
+
+    // Records one failed attempt and returns the user's failure count including it
+    public int recordFailure(Long userId) {
+        return failures.get(userId, id -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public int failures(Long userId) {
+        AtomicInteger count = failures.getIfPresent(userId);
+        return count == null ? 0 : count.get();
+    }
+
+    public void reset(Long userId) {
+        failures.invalidate(userId);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.userservice.security;
+
+import com.example.userservice.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Runs BCrypt on a dedicated, bounded pool so hashing bursts cannot occupy every request thread.
+// When the pool and its queue are full, work is rejected immediately with a 429 instead of queueing.
+@Component
+public class PasswordHasher {
+
+    private final int cost;
+    private final int poolSize;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer hashTimer;
+    private final Timer verifyTimer;
+    private final Counter rejected;
+
+    public PasswordHasher(@Value("${user.password.bcrypt-cost:10}") int cost,
+                          @Value("${user.password.hashing-threads:0}") int threads,
+                          @Value("${user.password.hashing-queue-capacity:100}") int queueCapacity,
+                          MeterRegistry meterRegistry) {
+        this.cost = cost;
+        this.poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        // Platform threads on purpose: BCrypt is CPU-bound, and in virtual-thread mode callers just park on the future
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTimer = Timer.builder("user.password.hashing").tag("operation", "hash").register(meterRegistry);
+        this.verifyTimer = Timer.builder("user.password.hashing").tag("operation", "verify").register(meterRegistry);
+        this.rejected = Counter.builder("user.password.hashing.rejected").register(meterRegistry);
+        Gauge.builder("user.password.hashing.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("user.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    public String hash(String rawPassword) {
+        return await(hashAsync(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String passwordHash) {
+        return await(matchesAsync(rawPassword, passwordHash));
+    }
+
+    // Hashes a batch using every worker, but with no more than one task per worker in flight,
+    // so the queue stays free for interactive logins while a bulk load is running
+    public List<String> hashAll(List<String> rawPasswords) {
+        Semaphore inFlight = new Semaphore(poolSize);
+        List<CompletableFuture<String>> hashes = new ArrayList<>(rawPasswords.size());
+        for (String rawPassword : rawPasswords) {
+            inFlight.acquireUninterruptibly();
+            try {
+                hashes.add(hashAsync(rawPassword).whenComplete((hash, ex) -> inFlight.release()));
+            } catch (RuntimeException e) {
+                inFlight.release();
+                throw e;
+            }
+        }
+        return hashes.stream().map(PasswordHasher::await).toList();
+    }
+
+    public CompletableFuture<String> hashAsync(String rawPassword) {
+        return submit(hashTimer, () -> BCrypt.hashpw(rawPassword, BCrypt.gensalt(cost)));
+    }
+
+    public CompletableFuture<Boolean> matchesAsync(String rawPassword, String passwordHash) {
+        return submit(verifyTimer, () -> BCrypt.checkpw(rawPassword, passwordHash));
+    }
+
+    // True when the stored hash was produced with a different cost than the configured one
+    public boolean needsRehash(String passwordHash) {
+        // BCrypt hashes look like $2a$10$..., the two digits after the version being the cost
+        if (passwordHash == null || passwordHash.length() < 7 || passwordHash.charAt(6) != '$') {
+            return true;
+        }
+        try {
+            return Integer.parseInt(passwordHash.substring(4, 6)) != cost;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(() -> timer.record(work), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Too many concurrent password operations, retry shortly");
+        }
+    }
+
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
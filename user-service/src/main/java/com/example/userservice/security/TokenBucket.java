@@ -0,0 +1,44 @@
+package com.example.userservice.security;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// Lock-free token bucket: the token count and its refill timestamp are swapped together with CAS
+final class TokenBucket {
+
+    private record State(double tokens, long refilledAt) {
+    }
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    TokenBucket(int capacity, double tokensPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.state = new AtomicReference<>(new State(capacity, now));
+    }
+
+    boolean tryConsume(long now) {
+        while (true) {
+            State current = state.get();
+            double tokens = available(current, now);
+            if (tokens < 1) {
+                return false;
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.refilledAt)))) {
+                return true;
+            }
+        }
+    }
+
+    // Whole seconds until one token is available again, for Retry-After
+    long secondsUntilNextToken(long now) {
+        double missing = 1 - available(state.get(), now);
+        return missing <= 0 ? 0 : (long) Math.ceil(missing / tokensPerNano / 1_000_000_000d);
+    }
+
+    private double available(State current, long now) {
+        long elapsed = Math.max(0, now - current.refilledAt);
+        return Math.min(capacity, current.tokens + elapsed * tokensPerNano);
+    }
+}
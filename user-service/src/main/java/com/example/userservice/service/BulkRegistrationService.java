@@ -0,0 +1,165 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.BulkRegistrationResult;
+import com.example.userservice.dto.UserRegistrationRequest;
+import com.example.userservice.entity.User;
+import com.example.userservice.event.UserEventPublisher;
+import com.example.userservice.event.UserEventType;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.security.PasswordHasher;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Registers many users per call: validates and de-duplicates the whole batch up front, hashes
+// passwords in parallel, then inserts in chunks with one transaction (and one JDBC batch) per chunk.
+@Service
+public class BulkRegistrationService {
+
+    static final int MAX_BATCH_SIZE = 5000;
+    static final int CHUNK_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final PasswordHasher passwordHasher;
+    private final UserEventPublisher eventPublisher;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    public BulkRegistrationService(UserRepository userRepository,
+                                   PasswordHasher passwordHasher,
+                                   UserEventPublisher eventPublisher,
+                                   Validator validator,
+                                   PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public List<BulkRegistrationResult> registerAll(List<UserRegistrationRequest> requests) {
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("At most " + MAX_BATCH_SIZE + " users can be registered per request");
+        }
+
+        BulkRegistrationResult[] results = new BulkRegistrationResult[requests.size()];
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String error = validate(requests.get(i));
+            if (error != null) {
+                results[i] = BulkRegistrationResult.rejected(i, error);
+            } else {
+                accepted.add(i);
+            }
+        }
+        accepted = rejectDuplicates(requests, accepted, results);
+
+        for (int from = 0; from < accepted.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + CHUNK_SIZE, accepted.size()));
+            List<String> hashes = passwordHasher.hashAll(chunk.stream()
+                    .map(i -> requests.get(i).getPassword())
+                    .toList());
+            List<User> users = new ArrayList<>(chunk.size());
+            for (int j = 0; j < chunk.size(); j++) {
+                users.add(UserService.newUser(requests.get(chunk.get(j)), hashes.get(j)));
+            }
+            persistChunk(chunk, users, results);
+        }
+        // New ids cannot be cached anywhere yet, so unlike single registration there is nothing to invalidate
+        return Arrays.asList(results);
+    }
+
+    private String validate(UserRegistrationRequest request) {
+        Set<ConstraintViolation<UserRegistrationRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    // Reject rows that repeat an identifier of an accepted row earlier in the batch or that already exist in the
+    // database. A row claims its identifiers only once all four are free, so a rejected row blocks nobody
+    private List<Integer> rejectDuplicates(List<UserRegistrationRequest> requests, List<Integer> candidates,
+                                           BulkRegistrationResult[] results) {
+        Set<String> takenEmails = existing(requests, candidates, UserRegistrationRequest::getEmail, userRepository::findExistingEmails);
+        Set<String> takenUsernames = existing(requests, candidates, UserRegistrationRequest::getUsername, userRepository::findExistingUsernames);
+        Set<String> takenPans = existing(requests, candidates, UserRegistrationRequest::getPan, userRepository::findExistingPans);
+        Set<String> takenMobiles = existing(requests, candidates, UserRegistrationRequest::getMobile, userRepository::findExistingMobiles);
+
+        List<Integer> accepted = new ArrayList<>(candidates.size());
+        for (int i : candidates) {
+            UserRegistrationRequest request = requests.get(i);
+            String error = null;
+            if (takenEmails.contains(request.getEmail())) {
+                error = "email already registered";
+            } else if (takenUsernames.contains(request.getUsername())) {
+                error = "username already taken";
+            } else if (takenPans.contains(request.getPan())) {
+                error = "PAN already registered";
+            } else if (takenMobiles.contains(request.getMobile())) {
+                error = "mobile already registered";
+            }
+            if (error != null) {
+                results[i] = BulkRegistrationResult.rejected(i, error);
+            } else {
+                takenEmails.add(request.getEmail());
+                takenUsernames.add(request.getUsername());
+                takenPans.add(request.getPan());
+                takenMobiles.add(request.getMobile());
+                accepted.add(i);
+            }
+        }
+        return accepted;
+    }
+
+    private static Set<String> existing(List<UserRegistrationRequest> requests, List<Integer> candidates,
+                                        Function<UserRegistrationRequest, String> attribute,
+                                        Function<Collection<String>, List<String>> lookup) {
+        Set<String> values = new HashSet<>();
+        candidates.forEach(i -> values.add(attribute.apply(requests.get(i))));
+        Set<String> taken = new HashSet<>();
+        // Keep each IN list to a bounded size
+        List<String> all = new ArrayList<>(values);
+        for (int from = 0; from < all.size(); from += CHUNK_SIZE) {
+            taken.addAll(lookup.apply(all.subList(from, Math.min(from + CHUNK_SIZE, all.size()))));
+        }
+        return taken;
+    }
+
+    private void persistChunk(List<Integer> indexes, List<User> users, BulkRegistrationResult[] results) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> save(users));
+            for (int j = 0; j < users.size(); j++) {
+                results[indexes.get(j)] = BulkRegistrationResult.created(indexes.get(j), users.get(j).getId());
+            }
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent registration took one of the identifiers after the pre-check; isolate it row by row
+            for (int j = 0; j < users.size(); j++) {
+                int index = indexes.get(j);
+                User user = users.get(j);
+                user.setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> save(List.of(user)));
+                    results[index] = BulkRegistrationResult.created(index, user.getId());
+                } catch (DataIntegrityViolationException rowFailure) {
+                    results[index] = BulkRegistrationResult.rejected(index, "duplicate identifier");
+                }
+            }
+        }
+    }
+
+    private void save(List<User> users) {
+        userRepository.saveAll(users);
+        users.forEach(user -> eventPublisher.publish(UserEventType.USER_REGISTERED, user));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.userservice.service;
+
+import com.example.userservice.cache.UserCacheInvalidator;
+import com.example.userservice.dto.UserEmail;
+import com.example.userservice.event.UserEventPublisher;
+import com.example.userservice.event.UserEventType;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.security.MpinAttemptTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Lifts expired MPIN locks in the background so LOCKED status counts stay accurate and logins never
+// have to write the unlock. Each batch is one indexed SELECT plus one UPDATE in its own transaction,
+// with a USER_UNLOCKED outbox event and a cache invalidation per user.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "user.unlock-sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class LockExpirySweeper {
+
+    private final UserRepository userRepository;
+    private final UserCacheInvalidator cacheInvalidator;
+    private final UserEventPublisher eventPublisher;
+    private final MpinAttemptTracker mpinAttemptTracker;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Counter unlocked;
+
+    public LockExpirySweeper(UserRepository userRepository,
+                             UserCacheInvalidator cacheInvalidator,
+                             UserEventPublisher eventPublisher,
+                             MpinAttemptTracker mpinAttemptTracker,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${user.unlock-sweeper.batch-size:500}") int batchSize,
+                             @Value("${user.unlock-sweeper.max-batches-per-run:20}") int maxBatchesPerRun,
+                             MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.eventPublisher = eventPublisher;
+        this.mpinAttemptTracker = mpinAttemptTracker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.unlocked = Counter.builder("user.accounts.unlocked")
+                .description("Accounts whose expired MPIN lock was lifted by the sweeper")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${user.unlock-sweeper.interval-ms:30000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        // Bounded per run so a large backlog is spread over several runs instead of one long burst
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer count = transactionTemplate.execute(status -> unlockBatch(now));
+            total += count == null ? 0 : count;
+            if (count == null || count < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Unlocked {} accounts with expired MPIN locks", total);
+        }
+    }
+
+    // Returns how many expired locks were found, so the caller knows whether to keep going
+    int unlockBatch(LocalDateTime now) {
+        List<UserEmail> expired = userRepository.findExpiredLocks(now, Limit.of(batchSize));
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        userRepository.unlockExpired(expired.stream().map(UserEmail::getId).toList(), now);
+        for (UserEmail user : expired) {
+            // The failures that caused the lock are still counted on this replica; other replicas clear theirs
+            // when the invalidation arrives
+            mpinAttemptTracker.reset(user.getId());
+            cacheInvalidator.invalidate(user.getId());
+            eventPublisher.publish(UserEventType.USER_UNLOCKED, user.getId(), user.getEmail());
+        }
+        unlocked.increment(expired.size());
+        return expired.size();
+    }
+}
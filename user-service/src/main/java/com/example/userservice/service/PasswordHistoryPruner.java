@@ -0,0 +1,34 @@
+package com.example.userservice.service;
+
+import com.example.userservice.entity.PasswordHistory;
+import com.example.userservice.repository.PasswordHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Trims a user's password history down to the newest N rows off the request thread
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PasswordHistoryPruner {
+
+    private final PasswordHistoryRepository historyRepository;
+
+    @Async
+    @Transactional
+    public void prune(Long userId, int keep) {
+        List<PasswordHistory> newest = historyRepository
+                .findByUserIdOrderByChangedAtDescIdDesc(userId, Limit.of(keep + 1));
+        if (newest.size() <= keep) {
+            return;
+        }
+        PasswordHistory oldestKept = newest.get(keep - 1);
+        int deleted = historyRepository.deleteOlderThan(userId, oldestKept.getChangedAt(), oldestKept.getId());
+        log.debug("Pruned {} password history rows for user {}", deleted, userId);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.userservice.service;
+
+import com.example.userservice.entity.PasswordHistory;
+import com.example.userservice.repository.PasswordHistoryRepository;
+import com.example.userservice.security.PasswordHasher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Keeps each user's last N password hashes. Reuse checks read at most N rows through the
+// (user_id, changed_at) index and run the BCrypt comparisons in parallel on the hashing pool;
+// rows beyond N are pruned asynchronously once the password change has committed.
+@Service
+public class PasswordHistoryService {
+
+    private final PasswordHistoryRepository historyRepository;
+    private final PasswordHistoryPruner pruner;
+    private final PasswordHasher passwordHasher;
+    private final int depth;
+
+    public PasswordHistoryService(PasswordHistoryRepository historyRepository,
+                                  PasswordHistoryPruner pruner,
+                                  PasswordHasher passwordHasher,
+                                  @Value("${user.password.history-depth:5}") int depth) {
+        this.historyRepository = historyRepository;
+        this.pruner = pruner;
+        this.passwordHasher = passwordHasher;
+        this.depth = depth;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    // Completes with true if the password matches any of the user's previous N hashes
+    public CompletableFuture<Boolean> matchesRecentAsync(Long userId, String password) {
+        if (depth <= 0) {
+            return CompletableFuture.completedFuture(false);
+        }
+        List<CompletableFuture<Boolean>> checks = historyRepository
+                .findByUserIdOrderByChangedAtDescIdDesc(userId, Limit.of(depth)).stream()
+                .map(entry -> passwordHasher.matchesAsync(password, entry.getPasswordHash()))
+                .toList();
+        return CompletableFuture.allOf(checks.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> checks.stream().anyMatch(CompletableFuture::join));
+    }
+
+    // Stores the hash being replaced; older rows are trimmed after the surrounding transaction commits
+    public void record(Long userId, String previousHash) {
+        if (depth <= 0) {
+            return;
+        }
+        historyRepository.save(PasswordHistory.builder()
+                .userId(userId)
+                .passwordHash(previousHash)
+                .changedAt(LocalDateTime.now())
+                .build());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pruner.prune(userId, depth);
+                }
+            });
+        } else {
+            pruner.prune(userId, depth);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.userservice.service;
+
+import com.example.userservice.exception.ConcurrentUpdateException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Re-runs a write whose optimistic version check lost to a concurrent change. Each attempt is a new
+// transaction (the retry advice sits outside @Transactional) and re-reads the row, so its checks are
+// repeated against the current state. Backoff is exponential with jitter, so racing writers spread out.
+// When every attempt loses, the ConcurrentUpdateException reaches the client as a 409.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Retryable(retryFor = ConcurrentUpdateException.class,
+        maxAttemptsExpression = "${user.concurrency.retry.max-attempts:4}",
+        backoff = @Backoff(delayExpression = "${user.concurrency.retry.initial-backoff-ms:10}",
+                maxDelayExpression = "${user.concurrency.retry.max-backoff-ms:200}",
+                multiplier = 2, random = true))
+public @interface RetryOnConflict {
+}
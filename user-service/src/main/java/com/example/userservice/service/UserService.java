@@ -1,30 +1,93 @@
 package com.example.userservice.service;
+import com.example.userservice.cache.UserCache;
+import com.example.userservice.cache.UserCacheInvalidator;
+import com.example.userservice.dto.CursorPage;
+import com.example.userservice.dto.SearchPage;
+import com.example.userservice.dto.UserEmail;
 import com.example.userservice.dto.UserRegistrationRequest;
+import com.example.userservice.dto.UserSearchCriteria;
+import com.example.userservice.dto.UserSummary;
 import com.example.userservice.entity.User;
+import com.example.userservice.event.UserEventPublisher;
+import com.example.userservice.event.UserEventType;
+import com.example.userservice.exception.ConcurrentUpdateException;
+import com.example.userservice.exception.InvalidCursorException;
+import com.example.userservice.exception.InvalidMpinException;
+import com.example.userservice.metrics.UserMetrics;
+import com.example.userservice.metrics.UserMetrics.LoginFailure;
 import com.example.userservice.repository.UserRepository;
+import com.example.userservice.repository.UserSpecifications;
+import com.example.userservice.security.MpinAttemptTracker;
+import com.example.userservice.security.PasswordHasher;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.ResponseEntity;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static com.example.userservice.metrics.UserMetrics.Operation.LOGIN;
+import static com.example.userservice.metrics.UserMetrics.Operation.MPIN_LOGIN;
+import static com.example.userservice.metrics.UserMetrics.Operation.REGISTER;
+import static com.example.userservice.metrics.UserMetrics.Operation.RESET_MPIN;
+import static com.example.userservice.metrics.UserMetrics.Operation.UPDATE_PASSWORD;
+import static com.example.userservice.metrics.UserMetrics.Phase.HASH;
+import static com.example.userservice.metrics.UserMetrics.Phase.LOOKUP;
+import static com.example.userservice.metrics.UserMetrics.Phase.PUBLISH;
+import static com.example.userservice.metrics.UserMetrics.Phase.SAVE;
+
+// Every public method is timed as user.operation{class,method,exception}; the write paths also
+// time their phases through UserMetrics
 @Service
+@Timed("user.operation")
 @RequiredArgsConstructor
 public class UserService {
 
-    private final UserRepository userRepository;
-    private final KafkaTemplate<String, String> kafkaTemplate; // Kafka integration
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int STREAM_BATCH_SIZE = 500;
+    static final int MAX_BULK_LOOKUP = 1000;
 
-    // Register a new user and publish event to Kafka
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final UserCacheInvalidator cacheInvalidator;
+    private final PasswordHasher passwordHasher;
+    private final MpinAttemptTracker mpinAttemptTracker;
+    private final UserEventPublisher eventPublisher; // Kafka integration
+    private final PasswordHistoryService passwordHistory;
+    private final UserMetrics metrics;
+
+    // Register a new user and queue its event for Kafka in the same transaction
+    @Transactional
     public User register(UserRegistrationRequest request) {
+        String passwordHash = metrics.phase(REGISTER, HASH).record(() -> passwordHasher.hash(request.getPassword()));
+        User user = newUser(request, passwordHash);
+
+        User savedUser = metrics.phase(REGISTER, SAVE).record(() -> userRepository.save(user));
+        cacheInvalidator.invalidate(savedUser);
+        metrics.phase(REGISTER, PUBLISH).record(() -> eventPublisher.publish(UserEventType.USER_REGISTERED, savedUser));
+        return savedUser;
+    }
 
-        User user = User.builder()
+    // Build an unsaved ACTIVE user from a validated registration request
+    static User newUser(UserRegistrationRequest request, String passwordHash) {
+        return User.builder()
                 .username(request.getUsername())
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
@@ -32,7 +95,7 @@ public class UserService {
                 .pan(request.getPan())
                 .mobile(request.getMobile())
                 .email(request.getEmail())
-                .passwordHash(BCrypt.hashpw(request.getPassword(), BCrypt.gensalt()))
+                .passwordHash(passwordHash)
                 .mpin(request.getMpin())
                 .failedMpinAttempts(0)
                 .address(request.getAddress())
@@ -43,152 +106,382 @@ public class UserService {
                 .accountStatus(User.AccountStatus.ACTIVE)
                 .role(User.Role.USER)
                 .build();
-
-        User savedUser = userRepository.save(user);
-//        kafkaTemplate.send("user-events", "USER_REGISTERED:" + savedUser.getId());
-//        return savedUser;
-        String kafkaMessage = "USER_REGISTERED:" + savedUser.getId() + ":" + savedUser.getEmail();
-        kafkaTemplate.send("user-events", kafkaMessage);
-        return savedUser;
     }
 
     // Get user by ID
+    @Transactional(readOnly = true)
     public User getUserById(Long id) {
-        return userRepository.findById(id)
+        return userCache.getById(id, userRepository::findById)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + id));
     }
 
-    // Get all users
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    // Resolve many users by id and/or email with one IN query per identifier type; unknown ones are skipped
+    @Transactional(readOnly = true)
+    public List<UserSummary> getUsersBulk(List<Long> ids, List<String> emails) {
+        List<Long> idList = ids == null ? List.of() : ids;
+        List<String> emailList = emails == null ? List.of() : emails;
+        if (idList.size() + emailList.size() > MAX_BULK_LOOKUP) {
+            throw new RuntimeException("At most " + MAX_BULK_LOOKUP + " identifiers can be looked up at once");
+        }
+
+        Map<Long, UserSummary> found = new LinkedHashMap<>();
+        if (!idList.isEmpty()) {
+            userRepository.findSummariesByIdIn(idList).forEach(user -> found.put(user.getId(), user));
+        }
+        if (!emailList.isEmpty()) {
+            userRepository.findSummariesByEmailIn(emailList).forEach(user -> found.putIfAbsent(user.getId(), user));
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    // Get one keyset page of users, ordered by id
+    @Transactional(readOnly = true)
+    public CursorPage<UserSummary> getUsersPage(Long afterId, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        List<UserSummary> users = userRepository.findSummariesByIdGreaterThanOrderByIdAsc(
+                afterId == null ? 0L : afterId, Limit.of(pageSize + 1));
+        return toPage(users, pageSize);
+    }
+
+    // Walk the whole users table in bounded batches, handing each user to the consumer as it is read.
+    // Deliberately not one transaction: each batch query is its own short read-only one, so a slow
+    // consumer does not pin a replica connection for the whole walk
+    public void streamAllUsers(Consumer<UserSummary> consumer) {
+        long cursor = 0L;
+        List<UserSummary> batch;
+        do {
+            batch = userRepository.findSummariesByIdGreaterThanOrderByIdAsc(cursor, Limit.of(STREAM_BATCH_SIZE));
+            for (UserSummary user : batch) {
+                consumer.accept(user);
+                cursor = user.getId();
+            }
+        } while (batch.size() == STREAM_BATCH_SIZE);
+    }
+
+    // Rows are fetched with one extra element so hasMore can be answered without a count query
+    private CursorPage<UserSummary> toPage(List<UserSummary> users, int pageSize) {
+        boolean hasMore = users.size() > pageSize;
+        List<UserSummary> items = hasMore ? users.subList(0, pageSize) : users;
+        Long nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+
+    // Search by any combination of filters, one keyset page at a time; the cursor encodes the sort key
+    // of the last row returned, so each page is an index range scan rather than an OFFSET
+    @Transactional(readOnly = true)
+    public SearchPage<UserSummary> searchUsers(UserSearchCriteria criteria, String cursor, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        boolean byCreatedAt = criteria.getSortBy() == UserSearchCriteria.SortField.CREATED_AT;
+        boolean descending = criteria.getDirection() == UserSearchCriteria.SortDirection.DESC;
+
+        List<Specification<User>> filters = new ArrayList<>();
+        if (StringUtils.hasText(criteria.getName())) {
+            filters.add(UserSpecifications.nameStartsWith(criteria.getName()));
+        }
+        if (StringUtils.hasText(criteria.getPan())) {
+            filters.add(UserSpecifications.panEquals(criteria.getPan()));
+        }
+        if (StringUtils.hasText(criteria.getPincode())) {
+            filters.add(UserSpecifications.pincodeEquals(criteria.getPincode()));
+        }
+        if (StringUtils.hasText(criteria.getState())) {
+            filters.add(UserSpecifications.stateEquals(criteria.getState()));
+        }
+        if (criteria.getStatus() != null) {
+            filters.add(UserSpecifications.statusEquals(criteria.getStatus()));
+        }
+        if (criteria.getCreatedFrom() != null) {
+            filters.add(UserSpecifications.createdFrom(criteria.getCreatedFrom()));
+        }
+        if (criteria.getCreatedTo() != null) {
+            filters.add(UserSpecifications.createdBefore(criteria.getCreatedTo()));
+        }
+        if (StringUtils.hasText(cursor)) {
+            filters.add(afterCursor(cursor, byCreatedAt, descending));
+        }
+
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = byCreatedAt ? Sort.by(direction, "createdAt", "id") : Sort.by(direction, "id");
+        List<UserSummary> rows = userRepository.findSummaries(Specification.allOf(filters), sort, pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<UserSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? encodeCursor(items.get(items.size() - 1), byCreatedAt) : null;
+        return new SearchPage<>(items, nextCursor, hasMore);
+    }
+
+    // "id" or "createdAt|id", base64url-encoded so clients treat it as opaque
+    static String encodeCursor(UserSummary last, boolean byCreatedAt) {
+        String raw = byCreatedAt ? last.getCreatedAt() + "|" + last.getId() : String.valueOf(last.getId());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Specification<User> afterCursor(String cursor, boolean byCreatedAt, boolean descending) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!byCreatedAt) {
+                return UserSpecifications.afterId(Long.valueOf(raw), descending);
+            }
+            int separator = raw.lastIndexOf('|');
+            return UserSpecifications.afterCreated(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)), descending);
+        } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new InvalidCursorException(cursor);
+        }
     }
 
     // Get user by email
+    @Transactional(readOnly = true)
     public User getUserByEmail(String email) {
-        return userRepository.findByEmail(email)
+        return userCache.getByEmail(email, userRepository::findByEmail)
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
     }
 
     // Get user by mobile
+    @Transactional(readOnly = true)
     public User getUserByMobile(String mobile) {
-        return userRepository.findByMobile(mobile)
+        return userCache.getByMobile(mobile, userRepository::findByMobile)
                 .orElseThrow(() -> new RuntimeException("User not found with mobile: " + mobile));
     }
 
+    @Transactional
     public void deleteUserByEmail(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
         userRepository.delete(user);
+        // By id: no later version of a deleted row exists, so every replica must drop whatever copy it has
+        cacheInvalidator.invalidate(user.getId());
+        eventPublisher.publish(UserEventType.USER_DELETED, user);
+    }
+
+    // Get one keyset page of users with the given account status
+    @Transactional(readOnly = true)
+    public CursorPage<UserSummary> getUsersByAccountStatus(User.AccountStatus status, Long afterId, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        List<UserSummary> users = userRepository.findSummariesByAccountStatusAndIdGreaterThanOrderByIdAsc(
+                status, afterId == null ? 0L : afterId, Limit.of(pageSize + 1));
+        return toPage(users, pageSize);
     }
 
-    // Get all users by their account status
-    public List<User> getUsersByAccountStatus(User.AccountStatus status) {
-        return userRepository.findByAccountStatus(status);
+    // Count users with the given account status without loading any rows
+    @Transactional(readOnly = true)
+    public long countUsersByAccountStatus(User.AccountStatus status) {
+        return userRepository.countByAccountStatus(status);
     }
 
+    @RetryOnConflict
+    @Transactional
     public User login(String username, String password) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = metrics.phase(LOGIN, LOOKUP).record(() -> userCache.getByUsername(username, userRepository::findByUsername))
+                .orElseThrow(() -> loginFailure(LoginFailure.PASSWORD_UNKNOWN_USER, "User not found"));
 
         // Check account lock first
-        if (user.getAccountStatus() == User.AccountStatus.LOCKED
-                && user.getAccountLockedUntil() != null
-                && user.getAccountLockedUntil().isAfter(LocalDateTime.now())) {
-            throw new RuntimeException("Account is locked until " + user.getAccountLockedUntil());
+        if (isLockActive(user)) {
+            throw loginFailure(LoginFailure.PASSWORD_LOCKED, "Account is locked until " + user.getAccountLockedUntil());
         }
 
-        if (!BCrypt.checkpw(password, user.getPasswordHash())) {
-            throw new RuntimeException("Invalid password");
+        if (!metrics.phase(LOGIN, HASH).record(() -> passwordHasher.matches(password, user.getPasswordHash()))) {
+            throw loginFailure(LoginFailure.PASSWORD_BAD_CREDENTIALS, "Invalid password");
         }
 
         if (user.getAccountStatus() == User.AccountStatus.DEACTIVATED) {
-            throw new RuntimeException("Account is deactivated. Contact support.");
+            throw loginFailure(LoginFailure.PASSWORD_INACTIVE, "Account is deactivated. Contact support.");
         }
 
-        if (user.getAccountStatus() != User.AccountStatus.ACTIVE) {
-            throw new RuntimeException("Account is not active");
+        // An expired lock counts as unlocked; LockExpirySweeper writes the transition in the background
+        if (user.getAccountStatus() != User.AccountStatus.ACTIVE && user.getAccountStatus() != User.AccountStatus.LOCKED) {
+            throw loginFailure(LoginFailure.PASSWORD_INACTIVE, "Account is not active");
         }
 
+        // Upgrade hashes made with an older cost factor while the plain password is at hand
+        if (passwordHasher.needsRehash(user.getPasswordHash())) {
+            rehash(user, password);
+        }
+
+        metrics.phase(LOGIN, PUBLISH).record(() -> eventPublisher.publishDirect(UserEventType.USER_LOGGED_IN, user));
         return user; // login successful
     }
 
+    // The user may be the copy UserCache hands to every reader, so the new hash goes on the row loaded in this
+    // transaction, as in updatePassword; a password changed since the lookup is left alone
+    private void rehash(User verified, String password) {
+        String newHash = metrics.phase(LOGIN, HASH).record(() -> passwordHasher.hash(password));
+        userRepository.findById(verified.getId())
+                .filter(current -> current.getPasswordHash().equals(verified.getPasswordHash()))
+                .ifPresent(current -> {
+                    current.setPasswordHash(newHash);
+                    metrics.phase(LOGIN, SAVE).record(() -> saveVersioned(current));
+                    cacheInvalidator.invalidate(current);
+                });
+    }
+
+    // Emails always contain '@' and mobile numbers never do, so exactly one unique-index lookup is needed.
+    // A request without an identifier matches no user rather than failing
+    private Optional<User> findByLoginIdentifier(String identifier) {
+        if (!StringUtils.hasText(identifier)) {
+            return Optional.empty();
+        }
+        if (identifier.indexOf('@') >= 0) {
+            return userCache.getByEmail(identifier, userRepository::findByEmail);
+        }
+        return userCache.getByMobile(identifier, userRepository::findByMobile);
+    }
 
+    // Writes one narrow UPDATE (see @DynamicUpdate on User) guarded by the version the caller read. It is
+    // flushed here so that losing a race surfaces as a ConcurrentUpdateException from this call rather than
+    // a failed commit; the stale cached copies are dropped first so a @RetryOnConflict retry reads the row
+    private User saveVersioned(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (OptimisticLockingFailureException e) {
+            cacheInvalidator.evictLocal(user.getId());
+            throw new ConcurrentUpdateException(user.getId());
+        }
+    }
+
+    private RuntimeException loginFailure(LoginFailure failure, String message) {
+        metrics.loginFailed(failure);
+        return new RuntimeException(message);
+    }
+
+    private static boolean isLockActive(User user) {
+        return user.getAccountStatus() == User.AccountStatus.LOCKED
+                && user.getAccountLockedUntil() != null
+                && user.getAccountLockedUntil().isAfter(LocalDateTime.now());
+    }
+
+    // Failed attempts are counted in MpinAttemptTracker; only the lock transition is written,
+    // and that write must survive the InvalidMpinException thrown right after it. No @RetryOnConflict:
+    // lockOut writes under a row lock so it cannot conflict, and a retry would count the attempt twice
+    @Transactional(noRollbackFor = InvalidMpinException.class)
     public User loginWithMpin(String identifier, String mpin) {
-        User user = userRepository.findByMobile(identifier)
-                .or(() -> userRepository.findByEmail(identifier))
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = metrics.phase(MPIN_LOGIN, LOOKUP).record(() -> findByLoginIdentifier(identifier))
+                .orElseThrow(() -> loginFailure(LoginFailure.MPIN_UNKNOWN_USER, "User not found"));
 
         if (user.getAccountStatus() == User.AccountStatus.DEACTIVATED) {
-            throw new RuntimeException("Account is deactivated. Contact support.");
+            throw loginFailure(LoginFailure.MPIN_INACTIVE, "Account is deactivated. Contact support.");
         }
 
-        // Check if account is locked
-        if (user.getAccountStatus() == User.AccountStatus.LOCKED
-                && user.getAccountLockedUntil() != null
-                && user.getAccountLockedUntil().isAfter(LocalDateTime.now())) {
-            throw new RuntimeException("Account is locked until " + user.getAccountLockedUntil());
+        // Check if account is locked; an expired lock is lifted by LockExpirySweeper, not by this request
+        if (isLockActive(user)) {
+            throw loginFailure(LoginFailure.MPIN_LOCKED, "Account is locked until " + user.getAccountLockedUntil());
         }
 
         if (!user.getMpin().equals(mpin)) {
-            int attempts = user.getFailedMpinAttempts() + 1;
-            user.setFailedMpinAttempts(attempts);
+            int attempts = mpinAttemptTracker.recordFailure(user.getId());
 
-            if (attempts >= 3) {
-                user.setAccountStatus(User.AccountStatus.LOCKED);
-                user.setAccountLockedUntil(LocalDateTime.now().plusDays(1));
-                user.setFailedMpinAttempts(0);
+            if (attempts > MpinAttemptTracker.MAX_ATTEMPTS) {
+                // A concurrent attempt already hit the limit and is locking the account
+                throw loginFailure(LoginFailure.MPIN_LOCKED, "Account is locked");
             }
 
-            userRepository.save(user);
-            throw new RuntimeException("Invalid MPIN. Attempt " + attempts + " of 3.");
+            metrics.loginFailed(LoginFailure.MPIN_BAD_CREDENTIALS);
+            // The counter stays at the limit (until its window ends or the account is reset or unlocked on any
+            // replica), so requests still holding a pre-lock copy of the user are refused below instead of
+            // starting a fresh count
+            if (attempts == MpinAttemptTracker.MAX_ATTEMPTS) {
+                lockOut(user.getId());
+            }
+
+            throw new InvalidMpinException("Invalid MPIN. Attempt " + attempts + " of " + MpinAttemptTracker.MAX_ATTEMPTS + ".");
         }
 
-        // Successful login
-        user.setFailedMpinAttempts(0);
-        user.setAccountStatus(User.AccountStatus.ACTIVE);
-        user.setAccountLockedUntil(null);
-        userRepository.save(user);
+        // A correct MPIN on a copy read before a concurrent lockout must not get through
+        if (mpinAttemptTracker.failures(user.getId()) >= MpinAttemptTracker.MAX_ATTEMPTS) {
+            throw loginFailure(LoginFailure.MPIN_LOCKED, "Account is locked");
+        }
+
+        // Successful login: clear any counted failures in memory, nothing is written to the database
+        mpinAttemptTracker.reset(user.getId());
+        metrics.phase(MPIN_LOGIN, PUBLISH).record(() -> eventPublisher.publishDirect(UserEventType.USER_LOGGED_IN, user));
 
         return user;
     }
 
-    @GetMapping("/{userId}/email")
-    public ResponseEntity<String> getUserEmail(@PathVariable Long userId) {
-        return userRepository.findById(userId)
-                .map(user -> ResponseEntity.ok(user.getEmail()))
-                .orElse(ResponseEntity.notFound().build());
+    // The copy that failed the MPIN check may come from UserCache and be older than the row, so the lock is
+    // decided on the row itself under a row lock: a deactivation or an existing lock is never overwritten,
+    // and the write cannot lose a version race (a lost race here used to leave the account unlocked)
+    private void lockOut(Long userId) {
+        User current = metrics.phase(MPIN_LOGIN, LOOKUP).record(() -> userRepository.findCurrentForUpdate(userId))
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (current.getAccountStatus() == User.AccountStatus.DEACTIVATED || isLockActive(current)) {
+            return;
+        }
+
+        current.setAccountStatus(User.AccountStatus.LOCKED);
+        current.setAccountLockedUntil(LocalDateTime.now().plusDays(1));
+        current.setFailedMpinAttempts(0);
+        metrics.phase(MPIN_LOGIN, SAVE).record(() -> saveVersioned(current));
+        cacheInvalidator.invalidate(current);
+        metrics.phase(MPIN_LOGIN, PUBLISH).record(() -> eventPublisher.publish(UserEventType.USER_LOCKED, current));
+        metrics.accountLocked();
+    }
+
+    // Fetch just the email column, without loading or caching the whole row
+    @Transactional(readOnly = true)
+    public Optional<UserEmail> getUserEmail(Long userId) {
+        return userRepository.findEmailById(userId);
     }
 
 
+    @RetryOnConflict
+    @Transactional
     public void deactivateAccount(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         user.setAccountStatus(User.AccountStatus.DEACTIVATED);
-        userRepository.save(user);
+        saveVersioned(user);
+        cacheInvalidator.invalidate(user);
+        eventPublisher.publish(UserEventType.USER_DEACTIVATED, user);
     }
 
+    @RetryOnConflict
+    @Transactional
     public void updatePassword(Long userId, String oldPassword, String newPassword) {
-        User user = userRepository.findById(userId)
+        User user = metrics.phase(UPDATE_PASSWORD, LOOKUP).record(() -> userRepository.findById(userId))
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Verify old password matches
-        if (!BCrypt.checkpw(oldPassword, user.getPasswordHash())) {
-            throw new RuntimeException("Old password is incorrect");
-        }
+        // All checks are independent, so run them side by side on the hashing pool
+        String currentHash = user.getPasswordHash();
+        CompletableFuture<Boolean> oldMatches = passwordHasher.matchesAsync(oldPassword, currentHash);
+        CompletableFuture<Boolean> newMatches = passwordHasher.matchesAsync(newPassword, currentHash);
+        CompletableFuture<Boolean> newReused = passwordHistory.matchesRecentAsync(userId, newPassword);
+
+        // Verify old password matches; the hash phase covers the wait for all three checks
+        Timer.Sample verifying = Timer.start();
+        try {
+            if (!PasswordHasher.await(oldMatches)) {
+                throw new RuntimeException("Old password is incorrect");
+            }
 
-        if (BCrypt.checkpw(newPassword, user.getPasswordHash())) {
-            throw new RuntimeException("New password cannot be the same as the old password");
+            if (PasswordHasher.await(newMatches)) {
+                throw new RuntimeException("New password cannot be the same as the old password");
+            }
+
+            if (PasswordHasher.await(newReused)) {
+                throw new RuntimeException("New password cannot be the same as any of the last "
+                        + passwordHistory.getDepth() + " passwords");
+            }
+        } finally {
+            verifying.stop(metrics.phase(UPDATE_PASSWORD, HASH));
         }
 
-        String newHashedPassword = BCrypt.hashpw(newPassword, BCrypt.gensalt());
+        String newHashedPassword = metrics.phase(UPDATE_PASSWORD, HASH).record(() -> passwordHasher.hash(newPassword));
         user.setPasswordHash(newHashedPassword);
 
-        userRepository.save(user);
+        metrics.phase(UPDATE_PASSWORD, SAVE).record(() -> {
+            saveVersioned(user);
+            passwordHistory.record(userId, currentHash);
+        });
+        cacheInvalidator.invalidate(user);
+        metrics.phase(UPDATE_PASSWORD, PUBLISH).record(() -> eventPublisher.publish(UserEventType.PASSWORD_CHANGED, user));
     }
 
+    @RetryOnConflict
+    @Transactional
     public void resetMpin(Long userId, String newMpin) {
-        User user = userRepository.findById(userId)
+        User user = metrics.phase(RESET_MPIN, LOOKUP).record(() -> userRepository.findById(userId))
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (!newMpin.matches("(\\d{4}|\\d{6})")) {
@@ -204,6 +497,9 @@ public class UserService {
         user.setAccountStatus(User.AccountStatus.ACTIVE);
         user.setAccountLockedUntil(null);
 
-        userRepository.save(user);
+        metrics.phase(RESET_MPIN, SAVE).record(() -> saveVersioned(user));
+        mpinAttemptTracker.reset(userId);
+        cacheInvalidator.invalidate(user);
+        metrics.phase(RESET_MPIN, PUBLISH).record(() -> eventPublisher.publish(UserEventType.MPIN_RESET, user));
     }
 }
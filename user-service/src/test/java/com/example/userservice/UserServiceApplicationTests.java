@@ -1,4 +1,18 @@
 package com.example.userservice;
 
-public class UserServiceApplicationTests {
+import com.example.userservice.support.StubKafkaConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+// Boots the whole application without MySQL, Kafka or Eureka (see application-embedded.yml)
+@SpringBootTest
+@ActiveProfiles("embedded")
+@Import(StubKafkaConfig.class)
+class UserServiceApplicationTests {
+
+    @Test
+    void contextLoads() {
+    }
 }
@@ -0,0 +1,235 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.dto.UserRegistrationRequest;
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.UserService;
+import com.example.userservice.support.StubKafkaConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Every mutating UserService path must leave the second-level cache holding the committed row. Each check
+// reads back through a fresh session and asserts the read was a cache hit, so a stale entry would show up
+@SpringBootTest
+@ActiveProfiles("embedded")
+@Import(StubKafkaConfig.class)
+class SecondLevelCacheCoherenceTest {
+
+    private static final String PASSWORD = "Cache@Pass123";
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    // Ids for rows written "on another replica", well clear of the ones the sequence hands out here
+    private static final AtomicLong REMOTE_IDS = new AtomicLong(1_000_000);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCacheInvalidator cacheInvalidator;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = userService.register(request(SEQUENCE.incrementAndGet()));
+    }
+
+    @Test
+    void testRegisterCachesInsertedUser() {
+        assertTrue(isCached(user.getId()));
+        assertEquals(user.getEmail(), cachedCopy(user.getId()).getEmail());
+    }
+
+    @Test
+    void testNaturalIdLookupByUsernameIsCached() {
+        long hits = statistics.getNaturalIdCacheHitCount();
+
+        assertEquals(user.getId(), userRepository.findByUsername(user.getUsername()).orElseThrow().getId());
+        assertEquals(hits + 1, statistics.getNaturalIdCacheHitCount());
+    }
+
+    @Test
+    void testUpdatePasswordRefreshesCachedHash() {
+        userService.updatePassword(user.getId(), PASSWORD, "Cache@Pass456");
+
+        assertTrue(BCrypt.checkpw("Cache@Pass456", cachedCopy(user.getId()).getPasswordHash()));
+    }
+
+    @Test
+    void testResetMpinRefreshesCachedMpin() {
+        userService.resetMpin(user.getId(), "5678");
+
+        assertEquals("5678", cachedCopy(user.getId()).getMpin());
+    }
+
+    @Test
+    void testDeactivateRefreshesCachedStatus() {
+        userService.deactivateAccount(user.getId());
+
+        assertEquals(User.AccountStatus.DEACTIVATED, cachedCopy(user.getId()).getAccountStatus());
+    }
+
+    @Test
+    void testMpinLockoutLeavesNoStaleEntry() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(RuntimeException.class, () -> userService.loginWithMpin(user.getMobile(), "0000"));
+        }
+
+        // The lockout re-reads the row under a lock, which leaves a soft lock rather than an entry, so this
+        // read is a miss; what matters is that no stale ACTIVE copy is served
+        User reloaded = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals(User.AccountStatus.LOCKED, reloaded.getAccountStatus());
+        assertNotNull(reloaded.getAccountLockedUntil());
+    }
+
+    @Test
+    void testLoginRehashRefreshesCachedHash() {
+        update(user.getId(), u -> u.setPasswordHash(BCrypt.hashpw(PASSWORD, BCrypt.gensalt(4))));
+
+        userService.login(user.getUsername(), PASSWORD);
+
+        assertFalse(cachedCopy(user.getId()).getPasswordHash().startsWith("$2a$04$"));
+    }
+
+    @Test
+    void testBulkUnlockInvalidatesCachedLock() {
+        update(user.getId(), u -> {
+            u.setAccountStatus(User.AccountStatus.LOCKED);
+            u.setAccountLockedUntil(LocalDateTime.now().minusMinutes(1));
+        });
+
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.unlockExpired(List.of(user.getId()), LocalDateTime.now()));
+
+        // A bulk UPDATE drops the region instead of patching entries, so the next read is a miss
+        assertFalse(isCached(user.getId()));
+        assertEquals(User.AccountStatus.ACTIVE, userRepository.findById(user.getId()).orElseThrow().getAccountStatus());
+    }
+
+    @Test
+    void testDeleteRemovesCachedUserAndNaturalId() {
+        userService.deleteUserByEmail(user.getEmail());
+
+        // The region keeps a soft lock for the deleted key, so check what reads see rather than contains()
+        assertTrue(userRepository.findById(user.getId()).isEmpty());
+        assertTrue(userRepository.findByUsername(user.getUsername()).isEmpty());
+    }
+
+    @Test
+    void testInvalidationFromAnotherReplicaEvictsEntry() {
+        cacheInvalidator.onInvalidation(user.getId() + ":1:another-node");
+
+        assertFalse(isCached(user.getId()));
+    }
+
+    @Test
+    void testUserRegisteredOnAnotherReplicaIsFoundAfterAMiss() {
+        int i = SEQUENCE.incrementAndGet();
+        String email = "l2cache" + i + "@example.com";
+        String mobile = String.valueOf(6_000_000_000L + i);
+        assertThrows(RuntimeException.class, () -> userService.getUserByEmail(email));
+        assertThrows(RuntimeException.class, () -> userService.loginWithMpin(mobile, "1234"));
+
+        long id = insertElsewhere("l2cache" + i, email, mobile, "CACHE" + String.format("%04d", i) + "Z");
+        cacheInvalidator.onInvalidation(id + ":0:another-node");
+
+        assertEquals(id, userService.getUserByEmail(email).getId());
+        assertEquals(id, userService.loginWithMpin(mobile, "1234").getId());
+    }
+
+    @Test
+    void testUsernameDeletedAndRegisteredAgainOnAnotherReplicaResolvesToTheNewRow() {
+        assertEquals(user.getId(), userRepository.findByUsername(user.getUsername()).orElseThrow().getId());
+
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.update("delete from users where id = ?", user.getId()));
+        cacheInvalidator.onInvalidation(user.getId() + ":another-node");
+        long id = insertElsewhere(user.getUsername(), user.getEmail(), user.getMobile(), user.getPan());
+        cacheInvalidator.onInvalidation(id + ":0:another-node");
+
+        assertEquals(id, userRepository.findByUsername(user.getUsername()).orElseThrow().getId());
+        assertEquals(id, userService.getUserByEmail(user.getEmail()).getId());
+    }
+
+    // Inserts the row over plain JDBC, as a write on another replica looks to this node's Hibernate
+    private long insertElsewhere(String username, String email, String mobile, String pan) {
+        long id = REMOTE_IDS.incrementAndGet();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "insert into users (id, version, username, email, mobile_number, pan, password_hash, mpin, "
+                        + "failed_mpin_attempts, account_status, role, created_at) "
+                        + "values (?, 0, ?, ?, ?, ?, ?, '1234', 0, 'ACTIVE', 'USER', ?)",
+                id, username, email, mobile, pan, BCrypt.hashpw(PASSWORD, BCrypt.gensalt(4)), LocalDateTime.now()));
+        return id;
+    }
+
+    private boolean isCached(Long id) {
+        return entityManagerFactory.getCache().contains(User.class, id);
+    }
+
+    // Loads the user in a new session and fails unless it came from the second-level cache
+    private User cachedCopy(Long id) {
+        long hits = statistics.getSecondLevelCacheHitCount();
+        User cached = userRepository.findById(id).orElseThrow();
+        assertEquals(hits + 1, statistics.getSecondLevelCacheHitCount(), "expected a second-level cache hit");
+        return cached;
+    }
+
+    private void update(Long id, Consumer<User> change) {
+        transactionTemplate.executeWithoutResult(status -> {
+            User managed = userRepository.findById(id).orElseThrow();
+            change.accept(managed);
+        });
+    }
+
+    private static UserRegistrationRequest request(int i) {
+        UserRegistrationRequest request = new UserRegistrationRequest();
+        request.setUsername("l2cache" + i);
+        request.setFirstName("Cache");
+        request.setLastName("User" + i);
+        request.setDob(LocalDate.of(1990, 1, 1));
+        request.setPan("CACHE" + String.format("%04d", i) + "Z");
+        request.setMobile(String.valueOf(6_000_000_000L + i));
+        request.setEmail("l2cache" + i + "@example.com");
+        request.setPassword(PASSWORD);
+        request.setMpin("1234");
+        request.setAddress("1 Cache Street");
+        request.setState("Karnataka");
+        request.setPincode("560001");
+        request.setCountry("India");
+        request.setGender("OTHER");
+        return request;
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Two replicas wired to an in-memory stand-in for the user-cache-invalidation topic
+class UserCacheInvalidatorTest {
+
+    private final List<UserCacheInvalidator> subscribers = new ArrayList<>();
+    private final List<String> published = new ArrayList<>();
+
+    private UserCache cacheA;
+    private UserCache cacheB;
+    private UserCacheInvalidator nodeA;
+    private UserCacheInvalidator nodeB;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        cacheA = new UserCache(100, Duration.ofHours(1), new SimpleMeterRegistry());
+        cacheB = new UserCache(100, Duration.ofHours(1), new SimpleMeterRegistry());
+        nodeA = new UserCacheInvalidator(cacheA, brokerStandIn());
+        nodeB = new UserCacheInvalidator(cacheB, brokerStandIn());
+        subscribers.add(nodeA);
+        subscribers.add(nodeB);
+
+        user = User.builder()
+                .id(1L)
+                .username("alice123")
+                .email("alice@example.com")
+                .mobile("9999999999")
+                .accountStatus(User.AccountStatus.ACTIVE)
+                .build();
+        cacheA.put(user);
+        cacheB.put(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testInvalidationOnOneNodeEvictsEveryReplica() {
+        // The write being announced; both caches still hold version 0
+        user.setVersion(1);
+        nodeA.invalidate(user);
+
+        assertEquals(List.of("1:1:" + nodeA.getNodeId()), published);
+        assertTrue(isEvicted(cacheA, "alice@example.com"));
+        assertTrue(isEvicted(cacheB, "alice@example.com"));
+    }
+
+    @Test
+    void testInvalidationByIdEvictsAliasesOnOtherReplica() {
+        nodeB.invalidate(1L);
+
+        assertTrue(isEvicted(cacheA, "alice@example.com"));
+        assertTrue(cacheA.getById(1L, id -> Optional.empty()).isEmpty());
+    }
+
+    @Test
+    void testPublishIsDeferredUntilCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        user.setVersion(1);
+        nodeA.invalidate(user);
+
+        assertTrue(published.isEmpty());
+        assertTrue(isEvicted(cacheA, "alice@example.com"));
+        assertFalse(isEvicted(cacheB, "alice@example.com"));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(1, published.size());
+        assertTrue(isEvicted(cacheB, "alice@example.com"));
+    }
+
+    @Test
+    void testStaleCopyReadFromLaggingReplicaIsEvictedAgain() throws InterruptedException {
+        UserCacheInvalidator lagging = new UserCacheInvalidator(cacheA, brokerStandIn(), Duration.ofMillis(50), null, null);
+
+        lagging.invalidate(user);
+        // A lookup right after commit still sees the old row on the replica and caches it
+        cacheA.put(user);
+        assertFalse(isEvicted(cacheA, "alice@example.com"));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!isEvicted(cacheA, "alice@example.com") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(isEvicted(cacheA, "alice@example.com"));
+    }
+
+    @Test
+    void testNoDelayedEvictionWithoutReplicaRouting() throws InterruptedException {
+        UserCacheInvalidator primaryOnly = new UserCacheInvalidator(cacheA, brokerStandIn(), "", Duration.ofMillis(50), null, null);
+
+        primaryOnly.invalidate(user);
+        cacheA.put(user);
+        Thread.sleep(200);
+
+        assertFalse(isEvicted(cacheA, "alice@example.com"));
+    }
+
+    @Test
+    void testPendingDelayedEvictionsAreDroppedOnShutdown() throws InterruptedException {
+        UserCacheInvalidator lagging = new UserCacheInvalidator(cacheA, brokerStandIn(), Duration.ofMillis(50), null, null);
+
+        lagging.invalidate(user);
+        cacheA.put(user);
+        lagging.shutdown();
+        Thread.sleep(200);
+
+        assertFalse(isEvicted(cacheA, "alice@example.com"));
+        // Writes committing while the context closes are not rejected
+        assertDoesNotThrow(() -> lagging.invalidate(2L));
+    }
+
+    @Test
+    void testInvalidationCarriesTheCommittedVersion() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        nodeA.invalidate(user);
+        // Flushing the write bumps the version after invalidate() is called, but before commit
+        user.setVersion(3);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(List.of("1:3:" + nodeA.getNodeId()), published);
+    }
+
+    @Test
+    void testLateInvalidationKeepsCopyAlreadyAtThatVersion() {
+        user.setVersion(5);
+        cacheA.put(user);
+
+        nodeA.onInvalidation("1:4:another-node");
+        nodeA.onInvalidation("1:5:another-node");
+        assertFalse(isEvicted(cacheA, "alice@example.com"));
+
+        nodeA.onInvalidation("1:6:another-node");
+        assertTrue(isEvicted(cacheA, "alice@example.com"));
+    }
+
+    @Test
+    void testInvalidationWithoutVersionAlwaysEvicts() {
+        user.setVersion(5);
+        cacheA.put(user);
+
+        nodeB.invalidate(1L);
+
+        assertEquals(List.of("1:" + nodeB.getNodeId()), published);
+        assertTrue(isEvicted(cacheA, "alice@example.com"));
+    }
+
+    @Test
+    void testOwnAndMalformedMessagesAreIgnored() {
+        nodeA.onInvalidation("1:" + nodeA.getNodeId());
+        nodeA.onInvalidation("garbage");
+
+        assertFalse(isEvicted(cacheA, "alice@example.com"));
+    }
+
+    private boolean isEvicted(UserCache cache, String email) {
+        return cache.getByEmail(email, e -> Optional.empty()).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private KafkaTemplate<String, String> brokerStandIn() {
+        KafkaTemplate<String, String> template = mock(KafkaTemplate.class);
+        when(template.send(eq(UserCacheInvalidator.TOPIC), anyString(), anyString())).thenAnswer(invocation -> {
+            String message = invocation.getArgument(2);
+            published.add(message);
+            subscribers.forEach(subscriber -> subscriber.onInvalidation(message));
+            return CompletableFuture.completedFuture(null);
+        });
+        return template;
+    }
+}
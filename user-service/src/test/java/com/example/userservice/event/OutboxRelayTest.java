@@ -0,0 +1,162 @@
+package com.example.userservice.event;
+
+import com.example.userservice.entity.OutboxEvent;
+import com.example.userservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaTemplate<String, UserEvent> kafkaTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(outboxEventRepository, kafkaTemplate, transactionManager,
+                2, Duration.ofSeconds(1), Duration.ofSeconds(5), meterRegistry);
+        when(outboxEventRepository.findFirstByOrderByCreatedAtAsc()).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void testRelay_SendsKeyedEventsAndDeletesAcknowledgedRows() {
+        when(outboxEventRepository.findAllByOrderByIdAsc(Limit.of(2)))
+                .thenReturn(List.of(event(10L, 1L)));
+        when(kafkaTemplate.send(anyString(), anyString(), any(UserEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relay();
+
+        ArgumentCaptor<UserEvent> sent = ArgumentCaptor.forClass(UserEvent.class);
+        verify(kafkaTemplate).send(eq("user-events"), eq("1"), sent.capture());
+        assertEquals(UserEventType.USER_REGISTERED, sent.getValue().type());
+        assertEquals(1L, sent.getValue().userId());
+        assertEquals("u1@example.com", sent.getValue().email());
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(10L));
+    }
+
+    @Test
+    void testRelay_KeepsRowsFromFirstFailureOnward() {
+        when(outboxEventRepository.findAllByOrderByIdAsc(Limit.of(2)))
+                .thenReturn(List.of(event(10L, 1L), event(11L, 2L)));
+        when(kafkaTemplate.send(eq("user-events"), eq("1"), any(UserEvent.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+        when(kafkaTemplate.send(eq("user-events"), eq("2"), any(UserEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relay();
+
+        // Nothing acknowledged before the failure, so nothing is deleted and the batch is retried next round
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of());
+        verify(outboxEventRepository).releaseClaims(List.of(10L, 11L));
+        assertEquals(1.0, meterRegistry.get("user.events.published")
+                .tag("type", "USER_REGISTERED").tag("result", "failure").counter().count());
+    }
+
+    @Test
+    void testRelay_DrainsUntilBatchIsShort() {
+        when(outboxEventRepository.findAllByOrderByIdAsc(Limit.of(2)))
+                .thenReturn(List.of(event(10L, 1L), event(11L, 2L)))
+                .thenReturn(List.of(event(12L, 3L)));
+        when(kafkaTemplate.send(anyString(), anyString(), any(UserEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relay();
+
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(10L, 11L));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(12L));
+        verify(outboxEventRepository, times(2)).findAllByOrderByIdAsc(Limit.of(2));
+    }
+
+    @Test
+    void testRelay_ClaimsBatchBeforeSending() {
+        OutboxEvent event = event(10L, 1L);
+        when(outboxEventRepository.findAllByOrderByIdAsc(Limit.of(2))).thenReturn(List.of(event));
+        when(kafkaTemplate.send(anyString(), anyString(), any(UserEvent.class))).thenAnswer(invocation -> {
+            assertNotNull(event.getClaimedUntil());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        relay.relay();
+
+        // The claim commits on its own, before the send; delete and release run in a second transaction
+        verify(transactionManager, times(2)).commit(any());
+        verify(outboxEventRepository, never()).releaseClaims(any());
+    }
+
+    @Test
+    void testRelay_LeavesBatchLeasedByAnotherRelay() {
+        OutboxEvent leased = event(10L, 1L);
+        leased.setClaimedUntil(LocalDateTime.now().plusSeconds(5));
+        when(outboxEventRepository.findAllByOrderByIdAsc(Limit.of(2)))
+                .thenReturn(List.of(leased, event(11L, 2L)));
+
+        relay.relay();
+
+        verifyNoInteractions(kafkaTemplate);
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void testRelay_ReclaimsRowsWhoseLeaseExpired() {
+        OutboxEvent abandoned = event(10L, 1L);
+        abandoned.setClaimedUntil(LocalDateTime.now().minusSeconds(1));
+        when(outboxEventRepository.findAllByOrderByIdAsc(Limit.of(2))).thenReturn(List.of(abandoned));
+        when(kafkaTemplate.send(anyString(), anyString(), any(UserEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relay();
+
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(10L));
+    }
+
+    @Test
+    void testLagGaugeFollowsOldestCreatedAt() {
+        OutboxEvent oldest = event(20L, 1L);
+        oldest.setCreatedAt(LocalDateTime.now().minusSeconds(30));
+        when(outboxEventRepository.findAllByOrderByIdAsc(Limit.of(2))).thenReturn(List.of());
+        when(outboxEventRepository.findFirstByOrderByCreatedAtAsc()).thenReturn(Optional.of(oldest));
+
+        relay.relay();
+
+        assertEquals(30.0, meterRegistry.get("user.outbox.lag").gauge().value(), 1.0);
+    }
+
+    private static OutboxEvent event(Long id, Long userId) {
+        return OutboxEvent.builder()
+                .id(id)
+                .eventType(UserEventType.USER_REGISTERED)
+                .userId(userId)
+                .email("u" + userId + "@example.com")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.userservice.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserEventCodecTest {
+
+    @Test
+    void testRoundTrip() {
+        UserEvent event = new UserEvent(UserEventType.MPIN_RESET, 123456789L, 1_760_000_000_000L, "alice@example.com");
+
+        UserEvent decoded = new UserEventDeserializer().deserialize("user-events",
+                new UserEventSerializer().serialize("user-events", event));
+
+        assertEquals(event, decoded);
+    }
+
+    @Test
+    void testRoundTripWithoutEmail() {
+        UserEvent event = new UserEvent(UserEventType.USER_DEACTIVATED, 1L, 0L, null);
+
+        assertEquals(event, UserEventCodec.decode(UserEventCodec.encode(event)));
+    }
+
+    @Test
+    void testEncodingIsSmallerThanLegacyString() {
+        UserEvent event = new UserEvent(UserEventType.USER_REGISTERED, 1_000_000L, 1_760_000_000_000L, "alice@example.com");
+        String legacy = "USER_REGISTERED:1000000:alice@example.com";
+
+        assertTrue(UserEventCodec.encode(event).length < legacy.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void testRejectsUnknownVersionAndTruncatedInput() {
+        byte[] encoded = UserEventCodec.encode(new UserEvent(UserEventType.USER_LOCKED, 42L, 7L, "a@b.com"));
+
+        byte[] wrongVersion = encoded.clone();
+        wrongVersion[0] = 2;
+        assertThrows(IllegalArgumentException.class, () -> UserEventCodec.decode(wrongVersion));
+
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 2);
+        assertThrows(IllegalArgumentException.class, () -> UserEventCodec.decode(truncated));
+    }
+
+    @Test
+    void testRejectsCorruptEmailLength() {
+        // 2^31 narrows to Integer.MIN_VALUE and 2^32 + 1 to 1, so both used to slip past the bounds check
+        byte[] wrapsNegative = {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x08};
+        byte[] wrapsSmall = {(byte) 0x81, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x10};
+        byte[] topBitSet = {-1, -1, -1, -1, -1, -1, -1, -1, -1, 0x01};
+
+        for (byte[] length : new byte[][] {wrapsNegative, wrapsSmall, topBitSet}) {
+            byte[] corrupt = withEmailLength(length);
+            assertThrows(IllegalArgumentException.class, () -> UserEventCodec.decode(corrupt));
+        }
+    }
+
+    @Test
+    void testDecodesTypeCodeFromNewerWriterAsUnknown() {
+        byte[] encoded = UserEventCodec.encode(new UserEvent(UserEventType.USER_UNLOCKED, 42L, 7L, "a@b.com"));
+        encoded[1] = 99;
+
+        assertEquals(new UserEvent(UserEventType.UNKNOWN, 42L, 7L, "a@b.com"), UserEventCodec.decode(encoded));
+    }
+
+    // A USER_LOCKED record for "a@b.com" whose email length varint is replaced by the given bytes
+    private static byte[] withEmailLength(byte[] length) {
+        byte[] encoded = UserEventCodec.encode(new UserEvent(UserEventType.USER_LOCKED, 42L, 7L, "a@b.com"));
+        byte[] email = Arrays.copyOfRange(encoded, 5, encoded.length);
+        byte[] corrupt = Arrays.copyOf(encoded, 4 + length.length + email.length);
+        System.arraycopy(length, 0, corrupt, 4, length.length);
+        System.arraycopy(email, 0, corrupt, 4 + length.length, email.length);
+        return corrupt;
+    }
+}
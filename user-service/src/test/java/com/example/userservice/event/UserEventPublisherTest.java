@@ -0,0 +1,90 @@
+package com.example.userservice.event;
+
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserEventPublisherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaTemplate<String, UserEvent> kafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private UserEventPublisher publisher;
+
+    // Holds the sender thread inside send(), as a producer blocked on max-block-ms would
+    private final CountDownLatch brokerStalled = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = new UserEventPublisher(outboxEventRepository, kafkaTemplate, meterRegistry, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        brokerStalled.countDown();
+        publisher.shutdown();
+    }
+
+    @Test
+    void testPublishDirect_DoesNotWaitOnBlockedProducer() throws InterruptedException {
+        CountDownLatch sending = new CountDownLatch(1);
+        when(kafkaTemplate.send(anyString(), anyString(), any(UserEvent.class))).thenAnswer(invocation -> {
+            sending.countDown();
+            brokerStalled.await();
+            return CompletableFuture.completedFuture(null);
+        });
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> publisher.publishDirect(UserEventType.USER_LOGGED_IN, user(1L)));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        verify(kafkaTemplate).send(eq("user-events"), eq("1"), any(UserEvent.class));
+    }
+
+    @Test
+    void testPublishDirect_DropsWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch sending = new CountDownLatch(1);
+        when(kafkaTemplate.send(anyString(), anyString(), any(UserEvent.class))).thenAnswer(invocation -> {
+            sending.countDown();
+            brokerStalled.await();
+            return CompletableFuture.completedFuture(null);
+        });
+
+        publisher.publishDirect(UserEventType.USER_LOGGED_IN, user(1L));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        // One event in the sender, one in the queue of capacity 1, the third is dropped
+        publisher.publishDirect(UserEventType.USER_LOGGED_IN, user(2L));
+        publisher.publishDirect(UserEventType.USER_LOGGED_IN, user(3L));
+
+        assertEquals(1.0, meterRegistry.get("user.events.published")
+                .tag("type", "USER_LOGGED_IN").tag("result", "dropped").counter().count());
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("u" + id + "@example.com");
+        return user;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.dto.UserEmail;
+import com.example.userservice.dto.UserSummary;
+import com.example.userservice.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The embedded test datasource auto-commits, so Hibernate must switch it off itself for test rollbacks to work
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.connection.provider_disables_autocommit=false"
+})
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        alice = userRepository.save(user("alice123", "alice@example.com", "9999999999", "ABCDE1234F"));
+        bob = userRepository.save(user("bob123", "bob@example.com", "8888888888", "BCDEF2345G"));
+        userRepository.flush();
+    }
+
+    @Test
+    void testSummaryPageProjection() {
+        List<UserSummary> page = userRepository.findSummariesByIdGreaterThanOrderByIdAsc(0L, Limit.of(1));
+
+        assertEquals(1, page.size());
+        assertEquals(new UserSummary(alice.getId(), "alice123", "Alice", "Smith", "alice@example.com",
+                User.AccountStatus.ACTIVE, alice.getCreatedAt()), page.get(0));
+    }
+
+    @Test
+    void testSummaryPageByStatus() {
+        List<UserSummary> page = userRepository.findSummariesByAccountStatusAndIdGreaterThanOrderByIdAsc(
+                User.AccountStatus.ACTIVE, alice.getId(), Limit.of(10));
+
+        assertEquals(List.of(bob.getId()), page.stream().map(UserSummary::getId).toList());
+    }
+
+    @Test
+    void testBulkSummaries() {
+        assertEquals(2, userRepository.findSummariesByIdIn(List.of(alice.getId(), bob.getId(), -1L)).size());
+        assertEquals("bob123", userRepository.findSummariesByEmailIn(List.of("bob@example.com")).get(0).getUsername());
+    }
+
+    @Test
+    void testEmailProjection() {
+        assertEquals(Optional.of(new UserEmail(bob.getId(), "bob@example.com")), userRepository.findEmailById(bob.getId()));
+        assertTrue(userRepository.findEmailById(-1L).isEmpty());
+    }
+
+    @Test
+    void testSearchByNamePrefixIgnoresCaseAndAccents() {
+        userRepository.save(user("jose123", "jose@example.com", "7777777777", "CDEFG3456H", "José", "Álvarez", "Kerala"));
+        userRepository.flush();
+
+        List<UserSummary> byFirst = userRepository.findSummaries(
+                UserSpecifications.nameStartsWith("JOSE alv"), Sort.by("id"), 10);
+        List<UserSummary> byLast = userRepository.findSummaries(
+                UserSpecifications.nameStartsWith("alva"), Sort.by("id"), 10);
+
+        assertEquals(List.of("jose123"), byFirst.stream().map(UserSummary::getUsername).toList());
+        assertEquals(List.of("jose123"), byLast.stream().map(UserSummary::getUsername).toList());
+    }
+
+    @Test
+    void testSearchCombinesFiltersAndPagesByCreatedAt() {
+        User carol = userRepository.save(user("carol123", "carol@example.com", "6666666666", "DEFGH4567J", "Carol", "Smith", "Karnataka"));
+        userRepository.flush();
+
+        Specification<User> karnatakaSmiths = Specification.allOf(
+                UserSpecifications.stateEquals(" karnataka "),
+                UserSpecifications.nameStartsWith("smith"));
+        Sort newestFirst = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
+        List<UserSummary> first = userRepository.findSummaries(karnatakaSmiths, newestFirst, 1);
+        UserSummary last = first.get(0);
+        List<UserSummary> second = userRepository.findSummaries(
+                karnatakaSmiths.and(UserSpecifications.afterCreated(last.getCreatedAt(), last.getId(), true)),
+                newestFirst, 10);
+
+        assertEquals(List.of(carol.getId()), first.stream().map(UserSummary::getId).toList());
+        assertEquals(List.of(bob.getId(), alice.getId()), second.stream().map(UserSummary::getId).toList());
+        assertTrue(userRepository.findSummaries(UserSpecifications.panEquals("abcde1234f"), Sort.by("id"), 10)
+                .stream().allMatch(u -> u.getId().equals(alice.getId())));
+    }
+
+    @Test
+    void testExpiredLocksAreFoundAndUnlockedInOneStatement() {
+        LocalDateTime now = LocalDateTime.now();
+        alice.setAccountStatus(User.AccountStatus.LOCKED);
+        alice.setAccountLockedUntil(now.minusMinutes(5));
+        bob.setAccountStatus(User.AccountStatus.LOCKED);
+        bob.setAccountLockedUntil(now.plusHours(1));
+        userRepository.saveAllAndFlush(List.of(alice, bob));
+        long versionBefore = alice.getVersion();
+
+        List<UserEmail> expired = userRepository.findExpiredLocks(now, Limit.of(10));
+        int unlocked = userRepository.unlockExpired(List.of(alice.getId(), bob.getId()), now);
+        entityManager.clear();
+
+        assertEquals(List.of(new UserEmail(alice.getId(), "alice@example.com")), expired);
+        assertEquals(1, unlocked);
+        assertEquals(User.AccountStatus.ACTIVE, userRepository.findById(alice.getId()).orElseThrow().getAccountStatus());
+        assertNull(userRepository.findById(alice.getId()).orElseThrow().getAccountLockedUntil());
+        assertEquals(versionBefore + 1, userRepository.findById(alice.getId()).orElseThrow().getVersion());
+        assertEquals(User.AccountStatus.LOCKED, userRepository.findById(bob.getId()).orElseThrow().getAccountStatus());
+    }
+
+    @Test
+    void testWriteFromStaleCopyFailsVersionCheck() {
+        entityManager.clear();
+        User stale = userRepository.findById(alice.getId()).orElseThrow();
+        entityManager.detach(stale);
+
+        User current = userRepository.findById(alice.getId()).orElseThrow();
+        current.setMpin("5678");
+        userRepository.saveAndFlush(current);
+
+        stale.setAccountStatus(User.AccountStatus.DEACTIVATED);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> userRepository.saveAndFlush(stale));
+    }
+
+    private static User user(String username, String email, String mobile, String pan) {
+        return user(username, email, mobile, pan, username.startsWith("alice") ? "Alice" : "Bob", "Smith", "Karnataka");
+    }
+
+    private static User user(String username, String email, String mobile, String pan,
+                             String firstName, String lastName, String state) {
+        return User.builder()
+                .username(username)
+                .firstName(firstName)
+                .lastName(lastName)
+                .state(state)
+                .email(email)
+                .mobile(mobile)
+                .pan(pan)
+                .passwordHash("hash")
+                .mpin("1234")
+                .role(User.Role.USER)
+                .build();
+    }
+}
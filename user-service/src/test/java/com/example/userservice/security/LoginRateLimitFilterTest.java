@@ -0,0 +1,120 @@
+package com.example.userservice.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.DelegatingServletInputStream;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class LoginRateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 10 attempts per IP, 2 per identifier, effectively no refill during the test
+        LoginRateLimiter limiter = new LoginRateLimiter(10, 1, 2, 1, 1000, Duration.ofMinutes(10));
+        filter = new LoginRateLimitFilter(limiter, new ObjectMapper(), meterRegistry);
+    }
+
+    @Test
+    void testIdentifierIsThrottledBeforeReachingController() throws Exception {
+        assertEquals(200, login("10.0.0.1", "{\"username\":\"alice123\",\"password\":\"x\"}").getStatus());
+        assertEquals(200, login("10.0.0.2", "{\"username\":\"ALICE123\",\"password\":\"x\"}").getStatus());
+
+        MockHttpServletResponse rejected = login("10.0.0.3", "{\"username\":\"alice123\",\"password\":\"x\"}");
+
+        assertEquals(429, rejected.getStatus());
+        assertNotNull(rejected.getHeader("Retry-After"));
+        assertEquals(1.0, meterRegistry.get("user.ratelimit.rejected").tag("scope", "identifier").counter().count());
+        // Other identifiers are unaffected
+        assertEquals(200, login("10.0.0.3", "{\"username\":\"bob123\",\"password\":\"x\"}").getStatus());
+    }
+
+    @Test
+    void testIpIsThrottledAcrossIdentifiers() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, login("10.0.0.9", "{\"username\":\"user" + i + "\",\"password\":\"x\"}").getStatus());
+        }
+
+        assertEquals(429, login("10.0.0.9", "{\"username\":\"fresh\",\"password\":\"x\"}").getStatus());
+    }
+
+    @Test
+    void testMpinLoginUsesMobileOrEmailAndBodyStillReachesController() throws Exception {
+        MockHttpServletRequest request = post(LoginRateLimitFilter.MPIN_LOGIN_PATH, "10.0.0.1",
+                "{\"mobile/email\":\"9999999999\",\"mpin\":\"1234\"}");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        String forwarded = new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals("{\"mobile/email\":\"9999999999\",\"mpin\":\"1234\"}", forwarded);
+    }
+
+    @Test
+    void testForwardedBodySupportsAsyncReads() throws Exception {
+        AtomicReference<ReadListener> registered = new AtomicReference<>();
+        byte[] body = "{\"username\":\"alice123\",\"password\":\"x\"}".getBytes(StandardCharsets.UTF_8);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", LoginRateLimitFilter.LOGIN_PATH) {
+            private final ServletInputStream stream = new DelegatingServletInputStream(new ByteArrayInputStream(body)) {
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    registered.set(listener);
+                }
+            };
+
+            @Override
+            public ServletInputStream getInputStream() {
+                return stream;
+            }
+        };
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        ReadListener listener = mock(ReadListener.class);
+        ServletInputStream forwarded = chain.getRequest().getInputStream();
+        forwarded.setReadListener(listener);
+        assertSame(listener, registered.get());
+        assertTrue(forwarded.isReady());
+    }
+
+    @Test
+    void testOtherEndpointsAreNotThrottled() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(post("/api/users/register", "10.0.0.1", "{}"), response, new MockFilterChain());
+            assertEquals(200, response.getStatus());
+        }
+    }
+
+    private MockHttpServletResponse login(String ip, String body) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(post(LoginRateLimitFilter.LOGIN_PATH, ip, body), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest post(String path, String ip, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.userservice.security;
+
+import com.example.userservice.support.StubKafkaConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Through the real Tomcat connector: requests arrive from 127.0.0.1, a trusted proxy, so the per-IP
+// bucket must be keyed on the X-Forwarded-For client rather than on the proxy's own address
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"user.rate-limit.ip.capacity=2", "user.rate-limit.ip.refill-per-minute=1"})
+@ActiveProfiles("embedded")
+@Import(StubKafkaConfig.class)
+class LoginRateLimitForwardedHeadersTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    // Plain HttpURLConnection: Apache HttpClient would honour Retry-After and quietly retry the 429
+    @BeforeEach
+    void setUp() {
+        restTemplate.getRestTemplate().setRequestFactory(new SimpleClientHttpRequestFactory());
+    }
+
+    @Test
+    void testIpLimitAppliesPerForwardedClient() {
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, login("203.0.113.1", "first"));
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, login("203.0.113.1", "second"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, login("203.0.113.1", "third"));
+
+        // Another client behind the same proxy still has its own budget
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, login("203.0.113.2", "fourth"));
+    }
+
+    private HttpStatusCode login(String clientIp, String username) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Forwarded-For", clientIp);
+        String body = "{\"username\":\"" + username + "\",\"password\":\"x\"}";
+        return restTemplate.postForEntity("/api/users/login", new HttpEntity<>(body, headers), String.class)
+                .getStatusCode();
+    }
+}
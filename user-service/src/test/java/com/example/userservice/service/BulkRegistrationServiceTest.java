@@ -0,0 +1,144 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.BulkRegistrationResult;
+import com.example.userservice.dto.UserRegistrationRequest;
+import com.example.userservice.entity.User;
+import com.example.userservice.event.UserEventPublisher;
+import com.example.userservice.event.UserEventType;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.security.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BulkRegistrationServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BulkRegistrationService bulkRegistrationService;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bulkRegistrationService = new BulkRegistrationService(userRepository,
+                new PasswordHasher(4, 2, 4, new SimpleMeterRegistry()), eventPublisher,
+                Validation.buildDefaultValidatorFactory().getValidator(), transactionManager);
+
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.forEach(u -> u.setId(ids.incrementAndGet()));
+            return users;
+        });
+    }
+
+    @Test
+    void testRegisterAll_ReportsPerRowResults() {
+        UserRegistrationRequest invalid = request(3);
+        invalid.setPan("not-a-pan");
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of("user2@example.com"));
+
+        List<BulkRegistrationResult> results = bulkRegistrationService.registerAll(
+                List.of(request(1), request(2), invalid, request(4)));
+
+        assertEquals(BulkRegistrationResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(BulkRegistrationResult.Status.REJECTED, results.get(1).getStatus());
+        assertEquals("email already registered", results.get(1).getError());
+        assertEquals(BulkRegistrationResult.Status.REJECTED, results.get(2).getStatus());
+        assertTrue(results.get(2).getError().contains("pan"));
+        assertEquals(BulkRegistrationResult.Status.CREATED, results.get(3).getStatus());
+
+        // Both accepted rows go to the database in one saveAll, each with a verifiable hash
+        verify(userRepository, times(1)).saveAll(argThat(users -> {
+            List<User> list = (List<User>) users;
+            return list.size() == 2 && BCrypt.checkpw("Password1!", list.get(0).getPasswordHash());
+        }));
+        verify(eventPublisher, times(2)).publish(eq(UserEventType.USER_REGISTERED), any(User.class));
+    }
+
+    @Test
+    void testRegisterAll_RejectsDuplicatesWithinBatch() {
+        UserRegistrationRequest repeat = request(2);
+        repeat.setEmail("user1@example.com");
+
+        List<BulkRegistrationResult> results = bulkRegistrationService.registerAll(List.of(request(1), repeat));
+
+        assertEquals(BulkRegistrationResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(BulkRegistrationResult.Status.REJECTED, results.get(1).getStatus());
+    }
+
+    @Test
+    void testRegisterAll_RejectedRowDoesNotClaimItsIdentifiers() {
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(List.of("user1"));
+        UserRegistrationRequest sameEmail = request(2);
+        sameEmail.setEmail("user1@example.com");
+
+        List<BulkRegistrationResult> results = bulkRegistrationService.registerAll(List.of(request(1), sameEmail));
+
+        assertEquals("username already taken", results.get(0).getError());
+        assertEquals(BulkRegistrationResult.Status.CREATED, results.get(1).getStatus());
+    }
+
+    @Test
+    void testRegisterAll_IsolatesRowsWhenChunkHitsConstraint() {
+        when(userRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate"))
+                .thenAnswer(invocation -> {
+                    List<User> users = invocation.getArgument(0);
+                    users.forEach(u -> u.setId(ids.incrementAndGet()));
+                    return users;
+                })
+                .thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        List<BulkRegistrationResult> results = bulkRegistrationService.registerAll(List.of(request(1), request(2)));
+
+        assertEquals(BulkRegistrationResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(BulkRegistrationResult.Status.REJECTED, results.get(1).getStatus());
+    }
+
+    @Test
+    void testRegisterAll_RejectsOversizedBatch() {
+        List<UserRegistrationRequest> requests = Collections.nCopies(
+                BulkRegistrationService.MAX_BATCH_SIZE + 1, request(1));
+
+        assertThrows(RuntimeException.class, () -> bulkRegistrationService.registerAll(requests));
+        verifyNoInteractions(userRepository);
+    }
+
+    private static UserRegistrationRequest request(int n) {
+        UserRegistrationRequest request = new UserRegistrationRequest();
+        request.setUsername("user" + n);
+        request.setFirstName("First" + n);
+        request.setLastName("Last");
+        request.setDob(LocalDate.of(1990, 1, 1));
+        request.setPan(String.format("ABCDE%04dF", n));
+        request.setMobile(String.format("98%08d", n));
+        request.setEmail("user" + n + "@example.com");
+        request.setPassword("Password1!");
+        request.setMpin("1234");
+        return request;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.userservice.service;
+
+import com.example.userservice.cache.UserCacheInvalidator;
+import com.example.userservice.dto.UserEmail;
+import com.example.userservice.event.UserEventPublisher;
+import com.example.userservice.event.UserEventType;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.security.MpinAttemptTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LockExpirySweeperTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserCacheInvalidator cacheInvalidator;
+
+    @Mock
+    private UserEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MpinAttemptTracker mpinAttemptTracker;
+
+    private LockExpirySweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        mpinAttemptTracker = new MpinAttemptTracker(Duration.ofHours(24), 1000, meterRegistry);
+        sweeper = new LockExpirySweeper(userRepository, cacheInvalidator, eventPublisher, mpinAttemptTracker,
+                transactionManager, 2, 3, meterRegistry);
+    }
+
+    @Test
+    void testSweep_UnlocksInBatchesUntilBacklogIsDrained() {
+        when(userRepository.findExpiredLocks(any(), eq(Limit.of(2))))
+                .thenReturn(List.of(new UserEmail(1L, "a@example.com"), new UserEmail(2L, "b@example.com")))
+                .thenReturn(List.of(new UserEmail(3L, "c@example.com")));
+
+        sweeper.sweep();
+
+        verify(userRepository).unlockExpired(eq(List.of(1L, 2L)), any());
+        verify(userRepository).unlockExpired(eq(List.of(3L)), any());
+        verify(userRepository, times(2)).findExpiredLocks(any(), any());
+        verify(eventPublisher).publish(UserEventType.USER_UNLOCKED, 3L, "c@example.com");
+        verify(cacheInvalidator).invalidate(1L);
+        assertEquals(3.0, meterRegistry.get("user.accounts.unlocked").counter().count());
+    }
+
+    @Test
+    void testSweep_ClearsFailuresCountedBeforeTheLock() {
+        for (int i = 0; i < MpinAttemptTracker.MAX_ATTEMPTS; i++) {
+            mpinAttemptTracker.recordFailure(1L);
+        }
+        when(userRepository.findExpiredLocks(any(), any()))
+                .thenReturn(List.of(new UserEmail(1L, "a@example.com")));
+
+        sweeper.sweep();
+
+        assertEquals(0, mpinAttemptTracker.failures(1L));
+    }
+
+    @Test
+    void testSweep_StopsAfterMaxBatchesPerRun() {
+        when(userRepository.findExpiredLocks(any(), any()))
+                .thenReturn(List.of(new UserEmail(1L, "a@example.com"), new UserEmail(2L, "b@example.com")));
+
+        sweeper.sweep();
+
+        verify(userRepository, times(3)).unlockExpired(anyCollection(), any());
+    }
+
+    @Test
+    void testSweep_NothingExpired() {
+        when(userRepository.findExpiredLocks(any(), any())).thenReturn(List.of());
+
+        sweeper.sweep();
+
+        verify(userRepository, never()).unlockExpired(anyCollection(), any());
+        verifyNoInteractions(eventPublisher, cacheInvalidator);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.userservice.service;
+
+import com.example.userservice.entity.PasswordHistory;
+import com.example.userservice.repository.PasswordHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PasswordHistoryPrunerTest {
+
+    @Mock
+    private PasswordHistoryRepository historyRepository;
+
+    private PasswordHistoryPruner pruner;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        pruner = new PasswordHistoryPruner(historyRepository);
+    }
+
+    @Test
+    void testPrune_DeletesRowsOlderThanTheLastKeptOne() {
+        LocalDateTime now = LocalDateTime.now();
+        when(historyRepository.findByUserIdOrderByChangedAtDescIdDesc(1L, Limit.of(3)))
+                .thenReturn(List.of(row(30L, now), row(20L, now.minusDays(1)), row(10L, now.minusDays(2))));
+
+        pruner.prune(1L, 2);
+
+        verify(historyRepository).deleteOlderThan(1L, now.minusDays(1), 20L);
+    }
+
+    @Test
+    void testPrune_NothingToDeleteWithinDepth() {
+        when(historyRepository.findByUserIdOrderByChangedAtDescIdDesc(1L, Limit.of(3)))
+                .thenReturn(List.of(row(30L, LocalDateTime.now())));
+
+        pruner.prune(1L, 2);
+
+        verify(historyRepository, never()).deleteOlderThan(anyLong(), any(), anyLong());
+    }
+
+    private static PasswordHistory row(Long id, LocalDateTime changedAt) {
+        return PasswordHistory.builder().id(id).userId(1L).passwordHash("hash").changedAt(changedAt).build();
+    }
+}
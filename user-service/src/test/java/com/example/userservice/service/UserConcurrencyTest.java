@@ -0,0 +1,169 @@
+package com.example.userservice.service;
+
+import com.example.userservice.cache.UserCache;
+import com.example.userservice.dto.UserRegistrationRequest;
+import com.example.userservice.entity.User;
+import com.example.userservice.exception.ConcurrentUpdateException;
+import com.example.userservice.exception.InvalidMpinException;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.support.StubKafkaConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Hammers a single user from many threads against the real stack (H2 row locks, versioned UPDATEs,
+// retry advice) and checks that no update is lost and the MPIN lock cannot be raced past
+@SpringBootTest
+@ActiveProfiles("embedded")
+@Import(StubKafkaConfig.class)
+class UserConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ExecutorService executor;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        user = userService.register(request(SEQUENCE.incrementAndGet()));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testParallelWrongMpinsLockTheAccountExactlyOnce() throws Exception {
+        double lockoutsBefore = meterRegistry.get("user.accounts.locked").counter().count();
+
+        List<Throwable> outcomes = hammer(4 * THREADS, i -> () -> userService.loginWithMpin(user.getMobile(), "0000"));
+
+        assertEquals(3, outcomes.stream().filter(InvalidMpinException.class::isInstance).count());
+        assertTrue(outcomes.stream().allMatch(e -> e instanceof InvalidMpinException
+                || e.getMessage().startsWith("Account is locked")), () -> "unexpected outcome in " + outcomes);
+        assertEquals(1, meterRegistry.get("user.accounts.locked").counter().count() - lockoutsBefore);
+        assertEquals(User.AccountStatus.LOCKED, userRepository.findById(user.getId()).orElseThrow().getAccountStatus());
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> userService.loginWithMpin(user.getMobile(), "1234"));
+        assertTrue(ex.getMessage().startsWith("Account is locked"));
+    }
+
+    @Test
+    void testParallelMpinResetsNeverLoseAnUpdate() throws Exception {
+        long versionBefore = userRepository.findById(user.getId()).orElseThrow().getVersion();
+
+        // Every call sets a distinct MPIN, so each one that succeeds must be a real write
+        List<Throwable> outcomes = hammer(5 * THREADS, i -> () -> {
+            userService.resetMpin(user.getId(), String.valueOf(5000 + i));
+            return null;
+        });
+
+        long conflicts = outcomes.stream().filter(ConcurrentUpdateException.class::isInstance).count();
+        assertEquals(outcomes.size(), conflicts, () -> "unexpected outcome in " + outcomes);
+        long successes = 5 * THREADS - conflicts;
+        assertTrue(successes > 0);
+        assertEquals(versionBefore + successes, userRepository.findById(user.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void testLockoutFromStaleCopyDoesNotOverwriteDeactivation() {
+        User stale = userService.getUserByMobile(user.getMobile());
+        userService.deactivateAccount(user.getId());
+        // As if this replica had not yet received the invalidation for the deactivation
+        userCache.put(stale);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(InvalidMpinException.class, () -> userService.loginWithMpin(user.getMobile(), "0000"));
+        }
+
+        assertEquals(User.AccountStatus.DEACTIVATED,
+                userRepository.findById(user.getId()).orElseThrow().getAccountStatus());
+    }
+
+    // Runs the calls from all threads at once and returns what each failed with (successes are omitted)
+    private List<Throwable> hammer(int calls, CallFactory factory) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            Callable<Object> call = factory.create(i);
+            futures.add(executor.submit(() -> {
+                start.await();
+                return call.call();
+            }));
+        }
+        start.countDown();
+
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            try {
+                future.get(30, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                failures.add(e.getCause());
+            } catch (java.util.concurrent.TimeoutException e) {
+                fail("call did not finish", e);
+            }
+        }
+        return failures;
+    }
+
+    @FunctionalInterface
+    private interface CallFactory {
+        Callable<Object> create(int i);
+    }
+
+    private static UserRegistrationRequest request(int i) {
+        UserRegistrationRequest request = new UserRegistrationRequest();
+        request.setUsername("race" + i);
+        request.setFirstName("Race");
+        request.setLastName("User" + i);
+        request.setDob(LocalDate.of(1990, 1, 1));
+        request.setPan("RACEU" + String.format("%04d", i) + "Z");
+        request.setMobile(String.valueOf(5_000_000_000L + i));
+        request.setEmail("race" + i + "@example.com");
+        request.setPassword("Race@Pass123");
+        request.setMpin("1234");
+        request.setAddress("1 Race Street");
+        request.setState("Karnataka");
+        request.setPincode("560001");
+        request.setCountry("India");
+        request.setGender("OTHER");
+        return request;
+    }
+}
@@ -1,17 +1,40 @@
 package com.example.userservice.service;
 
+import com.example.userservice.cache.UserCache;
+import com.example.userservice.cache.UserCacheInvalidator;
+import com.example.userservice.dto.CursorPage;
+import com.example.userservice.dto.SearchPage;
 import com.example.userservice.dto.UserRegistrationRequest;
+import com.example.userservice.dto.UserSearchCriteria;
+import com.example.userservice.dto.UserSummary;
+import com.example.userservice.entity.PasswordHistory;
 import com.example.userservice.entity.User;
+import com.example.userservice.event.UserEventPublisher;
+import com.example.userservice.event.UserEventType;
+import com.example.userservice.exception.ConcurrentUpdateException;
+import com.example.userservice.exception.InvalidCursorException;
+import com.example.userservice.exception.InvalidMpinException;
+import com.example.userservice.exception.TooManyRequestsException;
+import com.example.userservice.metrics.UserMetrics;
+import com.example.userservice.repository.PasswordHistoryRepository;
 import com.example.userservice.repository.UserRepository;
+import com.example.userservice.security.MpinAttemptTracker;
+import com.example.userservice.security.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.crypto.bcrypt.BCrypt;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,14 +47,39 @@ class UserServiceTest {
     @Mock
     private KafkaTemplate<String, String> kafkaTemplate;
 
-    @InjectMocks
+    @Mock
+    private UserEventPublisher eventPublisher;
+
+    @Mock
+    private PasswordHistoryRepository passwordHistoryRepository;
+
+    @Mock
+    private PasswordHistoryPruner passwordHistoryPruner;
+
+    private UserCache userCache;
+
+    private PasswordHasher passwordHasher;
+
     private UserService userService;
 
+    private SimpleMeterRegistry meterRegistry;
+
     private User user;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        meterRegistry = new SimpleMeterRegistry();
+        userCache = new UserCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        passwordHasher = new PasswordHasher(4, 2, 16, new SimpleMeterRegistry());
+        userService = new UserService(userRepository, userCache,
+                new UserCacheInvalidator(userCache, kafkaTemplate), passwordHasher,
+                new MpinAttemptTracker(Duration.ofHours(24), 1000, new SimpleMeterRegistry()), eventPublisher,
+                new PasswordHistoryService(passwordHistoryRepository, passwordHistoryPruner, passwordHasher, 3),
+                new UserMetrics(meterRegistry));
 
         user = User.builder()
                 .id(1L)
@@ -41,7 +89,7 @@ class UserServiceTest {
                 .dob(LocalDate.of(1990, 1, 1))
                 .email("alice@example.com")
                 .mobile("9999999999")
-                .passwordHash(BCrypt.hashpw("SecurePass123!", BCrypt.gensalt()))
+                .passwordHash(BCrypt.hashpw("SecurePass123!", BCrypt.gensalt(4)))
                 .mpin("1234")
                 .failedMpinAttempts(0)
                 .accountStatus(User.AccountStatus.ACTIVE)
@@ -77,7 +125,7 @@ class UserServiceTest {
 
         assertNotNull(savedUser.getId());
         assertEquals("bob123", savedUser.getUsername());
-        verify(kafkaTemplate).send(eq("user-events"), contains("USER_REGISTERED"));
+        verify(eventPublisher).publish(UserEventType.USER_REGISTERED, savedUser);
     }
 
     // --- Get by ID Test ---
@@ -99,15 +147,150 @@ class UserServiceTest {
         assertTrue(ex.getMessage().contains("User not found"));
     }
 
-    // --- Get All Users ---
+    // --- Cached Lookups ---
+    @Test
+    void testGetUserById_ServedFromCacheOnRepeat() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        userService.getUserById(1L);
+        userService.getUserById(1L);
+
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testLookupByIdPopulatesEmailAndMobileAliases() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        userService.getUserById(1L);
+        assertEquals(1L, userService.getUserByEmail("alice@example.com").getId());
+        assertEquals(1L, userService.getUserByMobile("9999999999").getId());
+
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(userRepository, never()).findByMobile(anyString());
+    }
+
+    @Test
+    void testDeactivateAccount_EvictsCachedUser() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
+
+        userService.getUserByEmail("alice@example.com");
+        userService.deactivateAccount(1L);
+        userService.getUserByEmail("alice@example.com");
+
+        verify(userRepository, times(2)).findByEmail("alice@example.com");
+    }
+
+    // --- Bulk Lookup ---
+    @Test
+    void testGetUsersBulk_MergesIdAndEmailMatches() {
+        UserSummary alice = UserSummary.from(user);
+        UserSummary bob = UserSummary.from(User.builder().id(2L).username("bob123").email("bob@example.com").build());
+        when(userRepository.findSummariesByIdIn(List.of(1L, 99L))).thenReturn(List.of(alice));
+        when(userRepository.findSummariesByEmailIn(List.of("alice@example.com", "bob@example.com"))).thenReturn(List.of(alice, bob));
+
+        List<UserSummary> users = userService.getUsersBulk(List.of(1L, 99L), List.of("alice@example.com", "bob@example.com"));
+
+        assertEquals(List.of(alice, bob), users);
+    }
+
+    @Test
+    void testGetUsersBulk_RejectsOversizedRequest() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 0; id <= UserService.MAX_BULK_LOOKUP; id++) {
+            ids.add(id);
+        }
+
+        assertThrows(RuntimeException.class, () -> userService.getUsersBulk(ids, null));
+        verifyNoInteractions(userRepository);
+    }
+
+    // --- Paged / Streamed Users ---
+    @Test
+    void testGetUsersPage_LastPage() {
+        when(userRepository.findSummariesByIdGreaterThanOrderByIdAsc(0L, Limit.of(11))).thenReturn(List.of(UserSummary.from(user)));
+
+        CursorPage<UserSummary> page = userService.getUsersPage(null, 10);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals("alice123", page.getItems().get(0).getUsername());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetUsersPage_HasMore() {
+        UserSummary second = UserSummary.from(User.builder().id(2L).username("bob123").build());
+        when(userRepository.findSummariesByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenReturn(List.of(UserSummary.from(user), second));
+
+        CursorPage<UserSummary> page = userService.getUsersPage(0L, 1);
+
+        assertEquals(1, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals(1L, page.getNextCursor());
+    }
+
+    @Test
+    void testStreamAllUsers_WalksBatchesByCursor() {
+        List<UserSummary> fullBatch = new ArrayList<>();
+        for (long id = 1; id <= UserService.STREAM_BATCH_SIZE; id++) {
+            fullBatch.add(UserSummary.from(User.builder().id(id).build()));
+        }
+        UserSummary last = UserSummary.from(User.builder().id(UserService.STREAM_BATCH_SIZE + 1L).build());
+        when(userRepository.findSummariesByIdGreaterThanOrderByIdAsc(0L, Limit.of(UserService.STREAM_BATCH_SIZE)))
+                .thenReturn(fullBatch);
+        when(userRepository.findSummariesByIdGreaterThanOrderByIdAsc((long) UserService.STREAM_BATCH_SIZE, Limit.of(UserService.STREAM_BATCH_SIZE)))
+                .thenReturn(List.of(last));
+
+        List<Long> seen = new ArrayList<>();
+        userService.streamAllUsers(u -> seen.add(u.getId()));
+
+        assertEquals(UserService.STREAM_BATCH_SIZE + 1, seen.size());
+        verify(userRepository, never()).findAll();
+    }
+
+    // --- Account Status Queries ---
+    @Test
+    void testGetUsersByAccountStatus_Paged() {
+        when(userRepository.findSummariesByAccountStatusAndIdGreaterThanOrderByIdAsc(User.AccountStatus.ACTIVE, 0L, Limit.of(51)))
+                .thenReturn(List.of(UserSummary.from(user)));
+
+        CursorPage<UserSummary> page = userService.getUsersByAccountStatus(User.AccountStatus.ACTIVE, null, 50);
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+    }
+
+    // --- Search ---
     @Test
-    void testGetAllUsers() {
-        when(userRepository.findAll()).thenReturn(List.of(user));
+    void testSearchUsers_ReturnsCursorForNextPage() {
+        UserSummary first = UserSummary.from(user);
+        UserSummary second = UserSummary.from(User.builder().id(2L).username("bob123").build());
+        when(userRepository.findSummaries(any(), eq(Sort.by(Sort.Direction.ASC, "id")), eq(2)))
+                .thenReturn(List.of(first, second));
+
+        SearchPage<UserSummary> page = userService.searchUsers(new UserSearchCriteria(), null, 1);
+
+        assertEquals(List.of(first), page.getItems());
+        assertTrue(page.isHasMore());
+        assertEquals(UserService.encodeCursor(first, false), page.getNextCursor());
+    }
+
+    @Test
+    void testSearchUsers_RejectsTamperedCursor() {
+        UserSearchCriteria criteria = new UserSearchCriteria();
+        criteria.setSortBy(UserSearchCriteria.SortField.CREATED_AT);
+
+        assertThrows(InvalidCursorException.class, () -> userService.searchUsers(criteria, "not-a-cursor", 10));
+        verify(userRepository, never()).findSummaries(any(), any(), anyInt());
+    }
 
-        List<User> users = userService.getAllUsers();
+    @Test
+    void testCountUsersByAccountStatus() {
+        when(userRepository.countByAccountStatus(User.AccountStatus.LOCKED)).thenReturn(7L);
 
-        assertEquals(1, users.size());
-        assertEquals("alice123", users.get(0).getUsername());
+        assertEquals(7L, userService.countUsersByAccountStatus(User.AccountStatus.LOCKED));
     }
 
     // --- Login Tests ---
@@ -118,6 +301,79 @@ class UserServiceTest {
         User loggedInUser = userService.login("alice123", "SecurePass123!");
 
         assertEquals("alice123", loggedInUser.getUsername());
+        verify(eventPublisher).publishDirect(UserEventType.USER_LOGGED_IN, user);
+    }
+
+    @Test
+    void testLogin_RehashesWhenStoredCostDiffers() {
+        user.setPasswordHash(BCrypt.hashpw("SecurePass123!", BCrypt.gensalt(5)));
+        when(userRepository.findByUsername("alice123")).thenReturn(Optional.of(user));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        userService.login("alice123", "SecurePass123!");
+
+        assertTrue(user.getPasswordHash().startsWith("$2a$04$"));
+        assertTrue(BCrypt.checkpw("SecurePass123!", user.getPasswordHash()));
+        verify(userRepository).saveAndFlush(user);
+    }
+
+    @Test
+    void testLogin_FailedRehashLeavesCachedCopyUntouched() {
+        String oldHash = BCrypt.hashpw("SecurePass123!", BCrypt.gensalt(5));
+        user.setPasswordHash(oldHash);
+        userCache.put(user);
+        User cached = userService.getUserById(1L);
+        User current = user.toBuilder().build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(current));
+        when(userRepository.saveAndFlush(current)).thenThrow(new ObjectOptimisticLockingFailureException(User.class, 1L));
+
+        assertThrows(ConcurrentUpdateException.class, () -> userService.login("alice123", "SecurePass123!"));
+
+        assertEquals(oldHash, cached.getPasswordHash());
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    void testLogin_NoRehashOverPasswordChangedSinceLookup() {
+        user.setPasswordHash(BCrypt.hashpw("SecurePass123!", BCrypt.gensalt(5)));
+        User changed = user.toBuilder().passwordHash(BCrypt.hashpw("Changed456!", BCrypt.gensalt(4))).build();
+        when(userRepository.findByUsername("alice123")).thenReturn(Optional.of(user));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(changed));
+
+        userService.login("alice123", "SecurePass123!");
+
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testLogin_NoRehashWhenCostMatches() {
+        when(userRepository.findByUsername("alice123")).thenReturn(Optional.of(user));
+
+        userService.login("alice123", "SecurePass123!");
+
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testLogin_RejectedWhenHashingPoolSaturated() {
+        PasswordHasher saturated = new PasswordHasher(4, 1, 1, new SimpleMeterRegistry());
+        UserService service = new UserService(userRepository, userCache,
+                new UserCacheInvalidator(userCache, kafkaTemplate), saturated,
+                new MpinAttemptTracker(Duration.ofHours(24), 1000, new SimpleMeterRegistry()), eventPublisher,
+                new PasswordHistoryService(passwordHistoryRepository, passwordHistoryPruner, passwordHasher, 3),
+                new UserMetrics(meterRegistry));
+        when(userRepository.findByUsername("alice123")).thenReturn(Optional.of(user));
+
+        // Occupy the single worker and the single queue slot with slow verifications
+        String slowHash = BCrypt.hashpw("slow", BCrypt.gensalt(12));
+        CompletableFuture<Boolean> running = saturated.matchesAsync("slow", slowHash);
+        CompletableFuture<Boolean> queued = saturated.matchesAsync("slow", slowHash);
+
+        assertThrows(TooManyRequestsException.class, () -> service.login("alice123", "SecurePass123!"));
+
+        running.join();
+        queued.join();
+        saturated.shutdown();
     }
 
     @Test
@@ -127,6 +383,10 @@ class UserServiceTest {
         RuntimeException ex = assertThrows(RuntimeException.class,
                 () -> userService.login("alice123", "WrongPass"));
         assertTrue(ex.getMessage().contains("Invalid password"));
+        assertEquals(1, meterRegistry.get("user.login.failures")
+                .tags("method", "password", "reason", "bad_credentials").counter().count());
+        assertEquals(1, meterRegistry.get("user.operation.phase")
+                .tags("operation", "login", "phase", "hash").timer().count());
     }
 
     @Test
@@ -159,6 +419,82 @@ class UserServiceTest {
 
         assertEquals("alice123", result.getUsername());
         assertEquals(0, result.getFailedMpinAttempts());
+        verify(userRepository, never()).saveAndFlush(any());
+        verify(eventPublisher).publishDirect(UserEventType.USER_LOGGED_IN, user);
+    }
+
+    @Test
+    void testLoginWithMpin_EmailIdentifierUsesSingleLookup() {
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
+
+        User result = userService.loginWithMpin("alice@example.com", "1234");
+
+        assertEquals("alice123", result.getUsername());
+        verify(userRepository).findByEmail("alice@example.com");
+        verify(userRepository, never()).findByMobile(anyString());
+    }
+
+    @Test
+    void testLoginWithMpin_MobileIdentifierNeverQueriesEmail() {
+        when(userRepository.findByMobile("9999999999")).thenReturn(Optional.empty());
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> userService.loginWithMpin("9999999999", "1234"));
+
+        assertEquals("User not found", ex.getMessage());
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void testLoginWithMpin_MissingIdentifierIsUnknownUser() {
+        for (String identifier : Arrays.asList(null, "", "  ")) {
+            RuntimeException ex = assertThrows(RuntimeException.class,
+                    () -> userService.loginWithMpin(identifier, "1234"));
+            assertEquals("User not found", ex.getMessage());
+        }
+
+        verifyNoInteractions(userRepository);
+        assertEquals(3, meterRegistry.get("user.login.failures")
+                .tags("method", "mpin", "reason", "unknown_user").counter().count());
+    }
+
+    @Test
+    void testLoginWithMpin_FailuresBelowLimitDoNotWrite() {
+        when(userRepository.findByMobile("9999999999")).thenReturn(Optional.of(user));
+
+        for (int i = 1; i <= 2; i++) {
+            int attempt = i;
+            RuntimeException ex = assertThrows(RuntimeException.class,
+                    () -> userService.loginWithMpin("9999999999", "0000"));
+            assertTrue(ex.getMessage().contains("Attempt " + attempt + " of 3"));
+        }
+
+        verify(userRepository, never()).saveAndFlush(any());
+        assertEquals(User.AccountStatus.ACTIVE, user.getAccountStatus());
+    }
+
+    @Test
+    void testLoginWithMpin_ExpiredLockAllowsLoginWithoutWrite() {
+        user.setAccountStatus(User.AccountStatus.LOCKED);
+        user.setAccountLockedUntil(LocalDateTime.now().minusMinutes(1));
+        when(userRepository.findByMobile("9999999999")).thenReturn(Optional.of(user));
+
+        userService.loginWithMpin("9999999999", "1234");
+        userService.loginWithMpin("9999999999", "1234");
+
+        verify(userRepository, never()).saveAndFlush(any());
+        // The second login is served the cached copy of the user
+        verify(eventPublisher, times(2)).publishDirect(eq(UserEventType.USER_LOGGED_IN), any(User.class));
+    }
+
+    @Test
+    void testLogin_ExpiredLockAllowsLogin() {
+        user.setAccountStatus(User.AccountStatus.LOCKED);
+        user.setAccountLockedUntil(LocalDateTime.now().minusMinutes(1));
+        when(userRepository.findByUsername("alice123")).thenReturn(Optional.of(user));
+
+        assertEquals(user, userService.login("alice123", "SecurePass123!"));
+        verify(userRepository, never()).saveAndFlush(any());
     }
 
     @Test
@@ -173,6 +509,7 @@ class UserServiceTest {
     @Test
     void testLoginWithMpin_ThreeFailedAttemptsLocksAccount() {
         when(userRepository.findByMobile("9999999999")).thenReturn(Optional.of(user));
+        when(userRepository.findCurrentForUpdate(1L)).thenReturn(Optional.of(user));
 
         for (int i = 0; i < 3; i++) {
             try {
@@ -182,6 +519,33 @@ class UserServiceTest {
 
         assertEquals(User.AccountStatus.LOCKED, user.getAccountStatus());
         assertNotNull(user.getAccountLockedUntil());
+        verify(userRepository, times(1)).saveAndFlush(user);
+        verify(eventPublisher).publish(UserEventType.USER_LOCKED, user);
+        assertEquals(3, meterRegistry.get("user.login.failures")
+                .tags("method", "mpin", "reason", "bad_credentials").counter().count());
+        assertEquals(1, meterRegistry.get("user.accounts.locked").counter().count());
+        assertEquals(1, meterRegistry.get("user.operation.phase")
+                .tags("operation", "mpin_login", "phase", "save").timer().count());
+    }
+
+    @Test
+    void testLoginWithMpin_ResetOnAnotherReplicaLiftsThisReplicasLockout() {
+        List<UserCacheInvalidator> replicas = new ArrayList<>();
+        UserService replicaA = replica(replicas);
+        UserService replicaB = replica(replicas);
+        when(userRepository.findByMobile("9999999999")).thenReturn(Optional.of(user));
+        when(userRepository.findCurrentForUpdate(1L)).thenReturn(Optional.of(user));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(InvalidMpinException.class, () -> replicaA.loginWithMpin("9999999999", "0000"));
+        }
+        assertEquals(User.AccountStatus.LOCKED, user.getAccountStatus());
+
+        replicaB.resetMpin(1L, "5678");
+
+        assertEquals(User.AccountStatus.ACTIVE, user.getAccountStatus());
+        assertEquals(user, replicaA.loginWithMpin("9999999999", "5678"));
     }
 
     // --- Deactivate Account ---
@@ -192,6 +556,90 @@ class UserServiceTest {
         userService.deactivateAccount(1L);
 
         assertEquals(User.AccountStatus.DEACTIVATED, user.getAccountStatus());
-        verify(userRepository).save(user);
+        verify(userRepository).saveAndFlush(user);
+        verify(kafkaTemplate).send(eq(UserCacheInvalidator.TOPIC), eq("1"), startsWith("1:"));
+        verify(eventPublisher).publish(UserEventType.USER_DEACTIVATED, user);
+    }
+
+
+    @Test
+    void testResetMpin_ConcurrentChangeIsRejectedWithoutSideEffects() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.saveAndFlush(user)).thenThrow(new ObjectOptimisticLockingFailureException(User.class, 1L));
+
+        assertThrows(ConcurrentUpdateException.class, () -> userService.resetMpin(1L, "5678"));
+        verify(eventPublisher, never()).publish(any(), any(User.class));
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+    }
+
+    // --- Update Password Tests ---
+    @Test
+    void testUpdatePassword_RecordsPreviousHash() {
+        String previousHash = user.getPasswordHash();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        userService.updatePassword(1L, "SecurePass123!", "BrandNew456!");
+
+        assertTrue(BCrypt.checkpw("BrandNew456!", user.getPasswordHash()));
+        ArgumentCaptor<PasswordHistory> captor = ArgumentCaptor.forClass(PasswordHistory.class);
+        verify(passwordHistoryRepository).save(captor.capture());
+        assertEquals(1L, captor.getValue().getUserId());
+        assertEquals(previousHash, captor.getValue().getPasswordHash());
+        verify(passwordHistoryPruner).prune(1L, 3);
+        verify(eventPublisher).publish(UserEventType.PASSWORD_CHANGED, user);
+    }
+
+    @Test
+    void testUpdatePassword_RejectsRecentlyUsedPassword() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(passwordHistoryRepository.findByUserIdOrderByChangedAtDescIdDesc(1L, Limit.of(3)))
+                .thenReturn(List.of(
+                        history("Another789!"),
+                        history("Reused123!")));
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> userService.updatePassword(1L, "SecurePass123!", "Reused123!"));
+
+        assertEquals("New password cannot be the same as any of the last 3 passwords", ex.getMessage());
+        verify(userRepository, never()).saveAndFlush(any());
+        verify(passwordHistoryRepository, never()).save(any());
+    }
+
+    @Test
+    void testUpdatePassword_WrongOldPassword() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> userService.updatePassword(1L, "WrongPass!", "BrandNew456!"));
+
+        assertEquals("Old password is incorrect", ex.getMessage());
+        verify(passwordHistoryRepository, never()).save(any());
+    }
+
+    // One more replica: its own caches and MPIN counts, sharing the repository (the database) and a
+    // stand-in for the invalidation topic that delivers every message to each replica in the list
+    @SuppressWarnings("unchecked")
+    private UserService replica(List<UserCacheInvalidator> replicas) {
+        KafkaTemplate<String, String> broker = mock(KafkaTemplate.class);
+        when(broker.send(eq(UserCacheInvalidator.TOPIC), anyString(), anyString())).thenAnswer(invocation -> {
+            String message = invocation.getArgument(2);
+            replicas.forEach(replica -> replica.onInvalidation(message));
+            return CompletableFuture.completedFuture(null);
+        });
+        UserCache cache = new UserCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        MpinAttemptTracker tracker = new MpinAttemptTracker(Duration.ofHours(24), 1000, new SimpleMeterRegistry());
+        UserCacheInvalidator invalidator = new UserCacheInvalidator(cache, broker, Duration.ZERO, null, tracker);
+        replicas.add(invalidator);
+        return new UserService(userRepository, cache, invalidator, passwordHasher, tracker, eventPublisher,
+                new PasswordHistoryService(passwordHistoryRepository, passwordHistoryPruner, passwordHasher, 3),
+                new UserMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static PasswordHistory history(String password) {
+        return PasswordHistory.builder()
+                .userId(1L)
+                .passwordHash(BCrypt.hashpw(password, BCrypt.gensalt(4)))
+                .changedAt(LocalDateTime.now())
+                .build();
     }
 }
@@ -0,0 +1,55 @@
+package com.example.userservice.support;
+
+import com.example.userservice.event.UserEventSerializer;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.mock.MockProducerFactory;
+
+import java.util.concurrent.Future;
+
+// Swaps the application's producer factories for auto-completing MockProducers, so sends succeed
+// immediately (still running the real serializers) without a broker. Use with the embedded profile.
+@Configuration
+public class StubKafkaConfig {
+
+    @Bean
+    static BeanPostProcessor stubProducerFactories() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof ProducerFactory<?, ?>)) {
+                    return bean;
+                }
+                if ("userEventProducerFactory".equals(beanName)) {
+                    return new MockProducerFactory<>(
+                            () -> new DiscardingProducer<>(new StringSerializer(), new UserEventSerializer()));
+                }
+                return new MockProducerFactory<>(
+                        () -> new DiscardingProducer<>(new StringSerializer(), new StringSerializer()));
+            }
+        };
+    }
+
+    // MockProducer keeps every record it was sent; drop them so long benchmark runs stay flat in memory
+    private static class DiscardingProducer<K, V> extends MockProducer<K, V> {
+
+        DiscardingProducer(Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+            super(true, keySerializer, valueSerializer);
+        }
+
+        @Override
+        public synchronized Future<RecordMetadata> send(ProducerRecord<K, V> record, Callback callback) {
+            Future<RecordMetadata> result = super.send(record, callback);
+            clear();
+            return result;
+        }
+    }
+}